@@ -0,0 +1,108 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+/**
+ * Solver which inspects the shape of each CFG and delegates it to
+ * the most suitable strategy:
+ * <ul>
+ *     <li>acyclic CFGs are solved by a single pass in topological order
+ *     ({@link TopologicalSolver});</li>
+ *     <li>small CFGs with shallow loops are solved by round-robin sweeps
+ *     ({@link IterativeSolver});</li>
+ *     <li>other CFGs are solved by a work-list prioritized by reverse
+ *     post-order ({@link PriorityWorkListSolver}).</li>
+ * </ul>
+ * The chosen strategy and the solving time of each method are logged
+ * at debug level, which helps tune the thresholds below.
+ */
+class AdaptiveSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(AdaptiveSolver.class);
+
+    /**
+     * CFGs with at most this number of nodes are considered small.
+     */
+    private static final int SMALL_CFG_SIZE = 64;
+
+    /**
+     * Small CFGs whose loop nesting depth exceeds this value are
+     * still solved by the work-list strategy, as the number of
+     * sweeps grows with the loop depth.
+     */
+    private static final int MAX_SWEEP_LOOP_DEPTH = 2;
+
+    private final TopologicalSolver<Node, Fact> topological;
+
+    private final IterativeSolver<Node, Fact> iterative;
+
+    private final PriorityWorkListSolver<Node, Fact> workList;
+
+    AdaptiveSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+        topological = new TopologicalSolver<>(analysis);
+        iterative = new IterativeSolver<>(analysis);
+        workList = new PriorityWorkListSolver<>(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        delegate(cfg, result);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        delegate(cfg, result);
+    }
+
+    /**
+     * Solves given CFG with the strategy selected by its shape.
+     * The facts of given result are updated in place.
+     */
+    private void delegate(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        long start = System.nanoTime();
+        CFGShape<Node> shape = CFGShape.of(cfg);
+        OrderedSolver<Node, Fact> solver = select(shape);
+        solver.solve(shape, result);
+        logger.debug("{}: {} with {}, {} ms", cfg.getMethod(), shape,
+                solver.getClass().getSimpleName(),
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private OrderedSolver<Node, Fact> select(CFGShape<Node> shape) {
+        if (shape.isAcyclic()) {
+            return topological;
+        } else if (shape.getNumberOfNodes() <= SMALL_CFG_SIZE &&
+                shape.getLoopDepth() <= MAX_SWEEP_LOOP_DEPTH) {
+            return iterative;
+        } else {
+            return workList;
+        }
+    }
+}
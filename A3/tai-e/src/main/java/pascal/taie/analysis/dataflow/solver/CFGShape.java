@@ -0,0 +1,223 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Structural summary of a CFG, which is used to choose a solving
+ * strategy and provides the node order for order-based solvers.
+ * <p>
+ * The nodes are ordered in reverse post-order (RPO) of a depth-first
+ * search starting from the entry node. Nodes unreachable from the entry
+ * are searched afterwards, so that every node of the CFG receives a rank.
+ * As their searches finish later, they are ranked <em>before</em> the
+ * nodes reachable from the entry, thus the entry does not necessarily
+ * have rank 0. For an acyclic CFG, this order is a topological order of
+ * all nodes, as an unreachable node may precede a reachable one but not
+ * vice versa.
+ * Nodes are represented by their ids in {@link IndexedCFG}.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class CFGShape<Node> {
+
+    private final IndexedCFG<Node> graph;
+
+    /**
+     * Node ids in reverse post-order.
+     */
+    private final int[] order;
+
+    /**
+     * Map from each node id to its position in {@link #order}.
+     */
+    private final int[] ranks;
+
+    private int numberOfBackEdges;
+
+    private int loopDepth;
+
+    private CFGShape(IndexedCFG<Node> graph) {
+        this.graph = graph;
+        order = new int[graph.getCFG().getNumberOfNodes()];
+        ranks = new int[graph.size()];
+    }
+
+    static <Node> CFGShape<Node> of(CFG<Node> cfg) {
+        CFGShape<Node> shape = new CFGShape<>(IndexedCFG.of(cfg));
+        shape.build();
+        return shape;
+    }
+
+    IndexedCFG<Node> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return number of nodes, which is also the length of the order.
+     */
+    int getNumberOfNodes() {
+        return order.length;
+    }
+
+    /**
+     * @return id of the node at given position in reverse post-order.
+     */
+    int getNodeAt(int rank) {
+        return order[rank];
+    }
+
+    /**
+     * @return position of given node in reverse post-order.
+     */
+    int getRank(int id) {
+        return ranks[id];
+    }
+
+    int getNumberOfEdges() {
+        return graph.getNumberOfEdges();
+    }
+
+    /**
+     * @return the number of back edges, i.e., edges whose target is
+     * an ancestor of (or the same as) its source in the DFS tree.
+     */
+    int getNumberOfBackEdges() {
+        return numberOfBackEdges;
+    }
+
+    /**
+     * @return the maximum nesting depth of the natural loops in the CFG.
+     */
+    int getLoopDepth() {
+        return loopDepth;
+    }
+
+    boolean isAcyclic() {
+        return numberOfBackEdges == 0;
+    }
+
+    private void build() {
+        // depth-first search, which collects post-order and back edges
+        int size = graph.size();
+        BitSet visited = new BitSet(size);
+        BitSet onStack = new BitSet(size);
+        int[] nodeStack = new int[size];
+        int[] posStack = new int[size];
+        int[] backEdges = new int[2 * graph.getNumberOfEdges()];
+        int nPost = 0;
+        // start from entry, and then from the nodes unreachable from entry
+        int root = graph.getEntry();
+        for (int next = 0; root >= 0; ) {
+            if (!visited.get(root) && graph.getNode(root) != null) {
+                int top = 0;
+                nodeStack[0] = root;
+                posStack[0] = graph.succBegin(root);
+                visited.set(root);
+                onStack.set(root);
+                while (top >= 0) {
+                    int node = nodeStack[top];
+                    if (posStack[top] < graph.succEnd(node)) {
+                        int succ = graph.succAt(posStack[top]++);
+                        if (!visited.get(succ)) {
+                            visited.set(succ);
+                            onStack.set(succ);
+                            ++top;
+                            nodeStack[top] = succ;
+                            posStack[top] = graph.succBegin(succ);
+                        } else if (onStack.get(succ)) {
+                            backEdges[2 * numberOfBackEdges] = succ;
+                            backEdges[2 * numberOfBackEdges + 1] = node;
+                            ++numberOfBackEdges;
+                        }
+                    } else {
+                        onStack.clear(node);
+                        order[order.length - 1 - nPost++] = node;
+                        --top;
+                    }
+                }
+            }
+            root = next < size ? next++ : -1;
+        }
+        for (int i = 0; i < order.length; ++i) {
+            ranks[order[i]] = i;
+        }
+        if (numberOfBackEdges > 0) {
+            computeLoopDepth(Arrays.copyOf(backEdges, 2 * numberOfBackEdges));
+        }
+    }
+
+    /**
+     * Computes the natural loop of each loop header (merging the loops
+     * that share a header) and counts how many loops contain each node.
+     *
+     * @param backEdges pairs of (header, tail) of the back edges
+     */
+    private void computeLoopDepth(int[] backEdges) {
+        BitSet[] loops = new BitSet[graph.size()];
+        int[] workList = new int[graph.getNumberOfEdges() + 1];
+        for (int i = 0; i < backEdges.length; i += 2) {
+            int header = backEdges[i];
+            BitSet body = loops[header];
+            if (body == null) {
+                body = loops[header] = new BitSet(graph.size());
+                body.set(header);
+            }
+            // each node is pushed at most once per incoming edge
+            int top = 0;
+            workList[0] = backEdges[i + 1];
+            while (top >= 0) {
+                int node = workList[top--];
+                if (!body.get(node)) {
+                    body.set(node);
+                    for (int j = graph.predBegin(node); j < graph.predEnd(node); ++j) {
+                        workList[++top] = graph.predAt(j);
+                    }
+                }
+            }
+        }
+        int[] depths = new int[graph.size()];
+        for (BitSet body : loops) {
+            if (body != null) {
+                for (int i = body.nextSetBit(0); i >= 0; i = body.nextSetBit(i + 1)) {
+                    loopDepth = Math.max(loopDepth, ++depths[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CFGShape{" +
+                "nodes=" + getNumberOfNodes() +
+                ", edges=" + getNumberOfEdges() +
+                ", backEdges=" + numberOfBackEdges +
+                ", loopDepth=" + loopDepth +
+                '}';
+    }
+}
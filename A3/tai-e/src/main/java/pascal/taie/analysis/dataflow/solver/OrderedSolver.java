@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+
+/**
+ * Base class for the solvers which visit CFG nodes in the order
+ * given by {@link CFGShape}. These solvers work on {@link IndexedCFG}
+ * and keep the facts in arrays indexed by node ids, thus their inner
+ * loops involve neither hashing nor allocation.
+ */
+abstract class OrderedSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    OrderedSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solve(CFGShape.of(cfg), result);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solve(CFGShape.of(cfg), result);
+    }
+
+    /**
+     * Solves the data-flow problem for the CFG of given shape.
+     * The facts of given result have been initialized by
+     * {@link #solve(CFG)}, and are updated in place.
+     */
+    void solve(CFGShape<Node> shape, DataflowResult<Node, Fact> result) {
+        IndexedCFG<Node> graph = shape.getGraph();
+        Fact[] inFacts = newFactArray(graph.size());
+        Fact[] outFacts = newFactArray(graph.size());
+        for (int i = 0; i < shape.getNumberOfNodes(); ++i) {
+            int id = shape.getNodeAt(i);
+            Node node = graph.getNode(id);
+            inFacts[id] = result.getInFact(node);
+            outFacts[id] = result.getOutFact(node);
+        }
+        if (analysis.isForward()) {
+            doSolveForward(shape, inFacts, outFacts);
+        } else {
+            doSolveBackward(shape, inFacts, outFacts);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact[] newFactArray(int size) {
+        return (Fact[]) new Object[size];
+    }
+
+    /**
+     * Solves a forward data-flow problem. The facts of the nodes are
+     * given as arrays indexed by node ids, and are updated in place.
+     */
+    protected abstract void doSolveForward(
+            CFGShape<Node> shape, Fact[] inFacts, Fact[] outFacts);
+
+    /**
+     * Solves a backward data-flow problem. The facts of the nodes are
+     * given as arrays indexed by node ids, and are updated in place.
+     */
+    protected abstract void doSolveBackward(
+            CFGShape<Node> shape, Fact[] inFacts, Fact[] outFacts);
+
+    /**
+     * Meets the OUT facts of predecessors into IN fact of given node,
+     * and applies the node transfer function.
+     *
+     * @return true if the OUT fact of the node changed, otherwise false.
+     */
+    boolean transferForward(IndexedCFG<Node> graph, int node,
+                            Fact[] inFacts, Fact[] outFacts) {
+        Fact in = inFacts[node];
+        for (int i = graph.predBegin(node); i < graph.predEnd(node); ++i) {
+            analysis.meetInto(outFacts[graph.predAt(i)], in);
+        }
+        return analysis.transferNode(graph.getNode(node), in, outFacts[node]);
+    }
+
+    /**
+     * Meets the IN facts of successors into OUT fact of given node,
+     * and applies the node transfer function.
+     *
+     * @return true if the IN fact of the node changed, otherwise false.
+     */
+    boolean transferBackward(IndexedCFG<Node> graph, int node,
+                             Fact[] inFacts, Fact[] outFacts) {
+        Fact out = outFacts[node];
+        for (int i = graph.succBegin(node); i < graph.succEnd(node); ++i) {
+            analysis.meetInto(inFacts[graph.succAt(i)], out);
+        }
+        return analysis.transferNode(graph.getNode(node), inFacts[node], out);
+    }
+
+    /**
+     * @return true if the solver should compute facts for given node,
+     * i.e., the node is neither entry nor exit of the CFG.
+     */
+    static boolean isInner(IndexedCFG<?> graph, int node) {
+        return !graph.isEntry(node) && !graph.isExit(node);
+    }
+}
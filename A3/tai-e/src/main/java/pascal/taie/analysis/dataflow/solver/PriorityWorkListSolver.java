@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+
+import java.util.BitSet;
+
+/**
+ * Work-list solver which always processes the pending node that comes
+ * first in reverse post-order (post-order for backward analysis), so that
+ * the facts of a loop body settle before the nodes after the loop are
+ * visited. The work-list is a bit set indexed by node ranks, thus adding
+ * a node that is already pending is a no-op and polling needs no hashing.
+ */
+class PriorityWorkListSolver<Node, Fact> extends OrderedSolver<Node, Fact> {
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFGShape<Node> shape,
+                                  Fact[] inFacts, Fact[] outFacts) {
+        IndexedCFG<Node> graph = shape.getGraph();
+        WorkList workList = new WorkList(shape.getNumberOfNodes());
+        for (int i = 0; i < shape.getNumberOfNodes(); ++i) {
+            if (isInner(graph, shape.getNodeAt(i))) {
+                workList.add(i);
+            }
+        }
+        while (!workList.isEmpty()) {
+            int node = shape.getNodeAt(workList.poll());
+            if (transferForward(graph, node, inFacts, outFacts)) {
+                for (int i = graph.succBegin(node); i < graph.succEnd(node); ++i) {
+                    int succ = graph.succAt(i);
+                    if (!graph.isExit(succ)) {
+                        workList.add(shape.getRank(succ));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFGShape<Node> shape,
+                                   Fact[] inFacts, Fact[] outFacts) {
+        IndexedCFG<Node> graph = shape.getGraph();
+        int last = shape.getNumberOfNodes() - 1;
+        // ranks are mirrored, so that the work-list polls in post-order
+        WorkList workList = new WorkList(shape.getNumberOfNodes());
+        for (int i = 0; i <= last; ++i) {
+            if (isInner(graph, shape.getNodeAt(i))) {
+                workList.add(last - i);
+            }
+        }
+        while (!workList.isEmpty()) {
+            int node = shape.getNodeAt(last - workList.poll());
+            if (transferBackward(graph, node, inFacts, outFacts)) {
+                for (int i = graph.predBegin(node); i < graph.predEnd(node); ++i) {
+                    int pred = graph.predAt(i);
+                    if (!graph.isEntry(pred)) {
+                        workList.add(last - shape.getRank(pred));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Work-list of node ranks which always polls the smallest rank.
+     * All pending ranks are not less than {@code cursor}, thus polling
+     * scans the bit set from the cursor instead of from the beginning.
+     */
+    private static class WorkList {
+
+        private final BitSet ranks;
+
+        private int cursor = 0;
+
+        private WorkList(int size) {
+            ranks = new BitSet(size);
+        }
+
+        private void add(int rank) {
+            ranks.set(rank);
+            if (rank < cursor) {
+                cursor = rank;
+            }
+        }
+
+        private boolean isEmpty() {
+            return ranks.isEmpty();
+        }
+
+        private int poll() {
+            int rank = ranks.nextSetBit(cursor);
+            ranks.clear(rank);
+            cursor = rank;
+            return rank;
+        }
+    }
+}
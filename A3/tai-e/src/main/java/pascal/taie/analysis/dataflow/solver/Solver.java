@@ -43,10 +43,12 @@ public abstract class Solver<Node, Fact> {
 
     /**
      * Static factory method to create a new solver for given analysis.
+     * The returned solver chooses a solving strategy for each CFG
+     * according to its size and shape, see {@link AdaptiveSolver}.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        return new AdaptiveSolver<>(analysis);
     }
 
     /**
@@ -0,0 +1,64 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+
+/**
+ * Solver for acyclic CFGs. As the reverse post-order of an acyclic CFG
+ * is a topological order, a single pass over the nodes in this order
+ * (or the reverse order for backward analysis) reaches the fixed point.
+ */
+class TopologicalSolver<Node, Fact> extends OrderedSolver<Node, Fact> {
+
+    TopologicalSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFGShape<Node> shape,
+                                  Fact[] inFacts, Fact[] outFacts) {
+        assert shape.isAcyclic() : "CFG has loops";
+        IndexedCFG<Node> graph = shape.getGraph();
+        for (int i = 0; i < shape.getNumberOfNodes(); ++i) {
+            int node = shape.getNodeAt(i);
+            if (isInner(graph, node)) {
+                transferForward(graph, node, inFacts, outFacts);
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFGShape<Node> shape,
+                                   Fact[] inFacts, Fact[] outFacts) {
+        assert shape.isAcyclic() : "CFG has loops";
+        IndexedCFG<Node> graph = shape.getGraph();
+        for (int i = shape.getNumberOfNodes() - 1; i >= 0; --i) {
+            int node = shape.getNodeAt(i);
+            if (isInner(graph, node)) {
+                transferBackward(graph, node, inFacts, outFacts);
+            }
+        }
+    }
+}
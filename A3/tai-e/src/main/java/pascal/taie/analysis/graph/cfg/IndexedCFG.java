@@ -0,0 +1,269 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+
+/**
+ * Frozen, int-indexed view of a {@link CFG}, which stores the edges in
+ * compressed sparse row (CSR) form.
+ * <p>
+ * Each node is identified by an id: for the nodes in the IR, the id is
+ * the index of the node (see {@link Indexable#getIndex()}); the entry and
+ * exit nodes take the two ids following the largest index. The outgoing
+ * edges of node {@code n} occupy positions
+ * [{@link #succBegin(int) succBegin(n)}, {@link #succEnd(int) succEnd(n)})
+ * of the successor arrays, and similarly for the incoming edges, so that
+ * clients can traverse the CFG with plain int loops without allocation:
+ * <pre>{@code
+ * for (int i = view.succBegin(n); i < view.succEnd(n); ++i) {
+ *     int succ = view.succAt(i);
+ *     Edge.Kind kind = view.succKindAt(i);
+ *     ...
+ * }
+ * }</pre>
+ * The view is built once per method, see {@link #of(CFG)}.
+ *
+ * @param <N> type of CFG nodes, which must be {@link Indexable}
+ */
+public class IndexedCFG<N> {
+
+    /**
+     * Key of the view in the results of the IR.
+     */
+    private static final String KEY = "indexed-cfg";
+
+    private static final Edge.Kind[] KINDS = Edge.Kind.values();
+
+    private final CFG<N> cfg;
+
+    private final Object[] nodes;
+
+    private final int entry;
+
+    private final int exit;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final byte[] succKinds;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    private final byte[] predKinds;
+
+    IndexedCFG(CFG<N> cfg) {
+        this.cfg = cfg;
+        int maxIndex = -1;
+        for (N node : cfg) {
+            if (!cfg.isEntry(node) && !cfg.isExit(node)) {
+                maxIndex = Math.max(maxIndex, indexOf(node));
+            }
+        }
+        entry = maxIndex + 1;
+        exit = maxIndex + 2;
+        int size = maxIndex + 3;
+        nodes = new Object[size];
+        succOffsets = new int[size + 1];
+        predOffsets = new int[size + 1];
+        // count the edges of each node, then compute the offsets
+        int nEdges = 0;
+        for (N node : cfg) {
+            int id = idOf(node);
+            nodes[id] = node;
+            int outDegree = cfg.getOutDegreeOf(node);
+            succOffsets[id + 1] = outDegree;
+            predOffsets[id + 1] = cfg.getInDegreeOf(node);
+            nEdges += outDegree;
+        }
+        for (int i = 0; i < size; ++i) {
+            succOffsets[i + 1] += succOffsets[i];
+            predOffsets[i + 1] += predOffsets[i];
+        }
+        succs = new int[nEdges];
+        succKinds = new byte[nEdges];
+        preds = new int[nEdges];
+        predKinds = new byte[nEdges];
+        // fill the edges
+        int[] predFill = new int[size];
+        for (N node : cfg) {
+            int source = idOf(node);
+            int i = succOffsets[source];
+            for (Edge<N> edge : cfg.getOutEdgesOf(node)) {
+                int target = idOf(edge.getTarget());
+                byte kind = (byte) edge.getKind().ordinal();
+                succs[i] = target;
+                succKinds[i] = kind;
+                ++i;
+                int j = predOffsets[target] + predFill[target]++;
+                preds[j] = source;
+                predKinds[j] = kind;
+            }
+        }
+    }
+
+    /**
+     * @return the indexed view of given CFG. The view is built at the
+     * first call for the CFG and cached in its IR.
+     */
+    public static <N> IndexedCFG<N> of(CFG<N> cfg) {
+        return cfg.getIR().getResult(KEY, () -> new IndexedCFG<>(cfg));
+    }
+
+    private int idOf(N node) {
+        if (cfg.isEntry(node)) {
+            return entry;
+        } else if (cfg.isExit(node)) {
+            return exit;
+        } else {
+            return indexOf(node);
+        }
+    }
+
+    private static int indexOf(Object node) {
+        if (node instanceof Indexable indexable) {
+            return indexable.getIndex();
+        }
+        throw new AnalysisException(node + " is not indexable");
+    }
+
+    /**
+     * @return the CFG this view represents.
+     */
+    public CFG<N> getCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the upper bound (exclusive) of the node ids.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @return the id of given node.
+     */
+    public int getId(N node) {
+        return idOf(node);
+    }
+
+    /**
+     * @return the node of given id, or null if no node has the id.
+     */
+    @SuppressWarnings("unchecked")
+    public N getNode(int id) {
+        return (N) nodes[id];
+    }
+
+    public int getEntry() {
+        return entry;
+    }
+
+    public int getExit() {
+        return exit;
+    }
+
+    public boolean isEntry(int id) {
+        return id == entry;
+    }
+
+    public boolean isExit(int id) {
+        return id == exit;
+    }
+
+    /**
+     * @return the number of edges in the CFG.
+     */
+    public int getNumberOfEdges() {
+        return succs.length;
+    }
+
+    /**
+     * @return the first position of the outgoing edges of given node.
+     */
+    public int succBegin(int id) {
+        return succOffsets[id];
+    }
+
+    /**
+     * @return the position after the last outgoing edge of given node.
+     */
+    public int succEnd(int id) {
+        return succOffsets[id + 1];
+    }
+
+    /**
+     * @return the target of the outgoing edge at given position.
+     */
+    public int succAt(int pos) {
+        return succs[pos];
+    }
+
+    /**
+     * @return the kind of the outgoing edge at given position.
+     */
+    public Edge.Kind succKindAt(int pos) {
+        return KINDS[succKinds[pos]];
+    }
+
+    public int getOutDegreeOf(int id) {
+        return succOffsets[id + 1] - succOffsets[id];
+    }
+
+    /**
+     * @return the first position of the incoming edges of given node.
+     */
+    public int predBegin(int id) {
+        return predOffsets[id];
+    }
+
+    /**
+     * @return the position after the last incoming edge of given node.
+     */
+    public int predEnd(int id) {
+        return predOffsets[id + 1];
+    }
+
+    /**
+     * @return the source of the incoming edge at given position.
+     */
+    public int predAt(int pos) {
+        return preds[pos];
+    }
+
+    /**
+     * @return the kind of the incoming edge at given position.
+     */
+    public Edge.Kind predKindAt(int pos) {
+        return KINDS[predKinds[pos]];
+    }
+
+    public int getInDegreeOf(int id) {
+        return predOffsets[id + 1] - predOffsets[id];
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Checks that {@link PriorityWorkListSolver}, which {@link AdaptiveSolver}
+ * selects for large CFGs and CFGs with deep loops, gives the same results
+ * as {@link WorkListSolver}.
+ */
+public class PriorityWorkListSolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/solver/";
+
+    @Test
+    public void testDeepLoops() {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", "DeepLoops", "-a", "cfg"});
+        int solved = 0;
+        for (JMethod method : World.get().getClassHierarchy()
+                .getClass("DeepLoops").getDeclaredMethods()) {
+            CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+            CFGShape<Stmt> shape = CFGShape.of(cfg);
+            if (shape.isAcyclic() || (shape.getNumberOfNodes() <= 64
+                    && shape.getLoopDepth() <= 2)) {
+                continue;
+            }
+            compare(cfg, new ConstantPropagation(
+                    new AnalysisConfig(ConstantPropagation.ID)));
+            compare(cfg, new LiveVariableAnalysis(
+                    new AnalysisConfig(LiveVariableAnalysis.ID)));
+            ++solved;
+        }
+        // nested() has deep loops and longLoop() is large
+        Assert.assertEquals(2, solved);
+    }
+
+    private static <Fact> void compare(
+            CFG<Stmt> cfg, DataflowAnalysis<Stmt, Fact> analysis) {
+        DataflowResult<Stmt, Fact> expected =
+                new WorkListSolver<>(analysis).solve(cfg);
+        DataflowResult<Stmt, Fact> actual =
+                new PriorityWorkListSolver<>(analysis).solve(cfg);
+        for (Stmt stmt : cfg) {
+            Assert.assertEquals(cfg.getMethod() + " " + stmt,
+                    expected.getInFact(stmt), actual.getInFact(stmt));
+            Assert.assertEquals(cfg.getMethod() + " " + stmt,
+                    expected.getOutFact(stmt), actual.getOutFact(stmt));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+class DeepLoops {
+
+    public static void main(String[] args) {
+        nested(args.length);
+        longLoop(args.length);
+    }
+
+    static int nested(int n) {
+        int sum = 0;
+        int c = 1;
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < i; ++j) {
+                for (int k = 0; k < j; ++k) {
+                    sum += c * k;
+                    if (k > 10) {
+                        c = 2;
+                    }
+                }
+            }
+        }
+        return sum + c;
+    }
+
+    static int longLoop(int n) {
+        int a = 0;
+        int b = 1;
+        int x = 3;
+        while (n > 0) {
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            a = a + b;
+            b = a - x;
+            --n;
+        }
+        return a + b + x;
+    }
+}
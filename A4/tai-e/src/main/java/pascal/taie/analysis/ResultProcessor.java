@@ -28,6 +28,7 @@ import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Scope;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
@@ -188,12 +189,26 @@ public class ResultProcessor extends ProgramAnalysis {
         processResults(methods, analyses, (m, id) -> World.get().getResult(id));
     }
 
+    /**
+     * Processes the results of method analyses. If the scope is reachable,
+     * method analyses only run on the methods reachable in the call graph,
+     * thus only the results of these methods are processed, and the IRs of
+     * the other methods are never built.
+     */
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
-                .getClassHierarchy()
-                .applicationClasses()
-                .map(JClass::getDeclaredMethods)
-                .flatMap(Collection::stream)
+        Stream<JMethod> methods;
+        if (Scope.REACHABLE.equals(World.get().getOptions().getScope())) {
+            CallGraph<?, JMethod> cg = World.get().getResult(CallGraphBuilder.ID);
+            methods = cg.reachableMethods()
+                    .filter(m -> m.getDeclaringClass().isApplication());
+        } else {
+            methods = World.get()
+                    .getClassHierarchy()
+                    .applicationClasses()
+                    .map(JClass::getDeclaredMethods)
+                    .flatMap(Collection::stream);
+        }
+        methods = methods
                 .filter(m -> !m.isAbstract() && !m.isNative())
                 .sorted(Comparator.comparing(m ->
                         m.getIR().getStmt(0).getLineNumber()));
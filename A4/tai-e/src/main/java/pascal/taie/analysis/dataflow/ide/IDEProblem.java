@@ -0,0 +1,67 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.dataflow.ifds.IFDSProblem;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+/**
+ * Template interface for IDE (inter-procedural distributive environment)
+ * problems. In addition to the flow functions of the underlying IFDS
+ * problem, each edge of the exploded super-graph, i.e., a fact
+ * {@code source} at the source of an ICFG edge which generates a fact
+ * {@code target} at the target, carries an {@link EdgeFunction} over
+ * a value lattice.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values
+ */
+public interface IDEProblem<Node, D, V> extends IFDSProblem<Node, D> {
+
+    /**
+     * @return the top element of the value lattice.
+     */
+    V topValue();
+
+    /**
+     * @return the bottom element of the value lattice, which is also
+     * the value of the zero fact at the entries of entry methods.
+     */
+    V bottomValue();
+
+    V meet(V v1, V v2);
+
+    EdgeFunction<V> identity();
+
+    EdgeFunction<V> getNormalEdgeFunction(NormalEdge<Node> edge, D source, D target);
+
+    EdgeFunction<V> getCallToReturnEdgeFunction(CallToReturnEdge<Node> edge, D source, D target);
+
+    EdgeFunction<V> getCallEdgeFunction(CallEdge<Node> edge, D source, D target);
+
+    EdgeFunction<V> getReturnEdgeFunction(ReturnEdge<Node> edge, D source, D target);
+}
@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.first;
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.second;
+
+/**
+ * Result of an IDE problem. Only the values at method entries are
+ * stored; the value of a fact at other nodes is computed from the jump
+ * functions of the node when it is queried.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ * @param <V>      type of values
+ */
+public class IDEResult<Method, Node, D, V> {
+
+    private final IDEProblem<Node, D, V> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Map<Node, Integer> nodeIds;
+
+    private final Map<D, Integer> factIds;
+
+    private final List<D> facts;
+
+    private final List<Map<Long, EdgeFunction<V>>> jumpFunctions;
+
+    private final Map<Method, Map<Integer, V>> entryValues;
+
+    IDEResult(IDEProblem<Node, D, V> problem, ICFG<Method, Node> icfg,
+              Map<Node, Integer> nodeIds, Map<D, Integer> factIds,
+              List<D> facts, List<Map<Long, EdgeFunction<V>>> jumpFunctions,
+              Map<Method, Map<Integer, V>> entryValues) {
+        this.problem = problem;
+        this.icfg = icfg;
+        this.nodeIds = nodeIds;
+        this.factIds = factIds;
+        this.facts = facts;
+        this.jumpFunctions = jumpFunctions;
+        this.entryValues = entryValues;
+    }
+
+    /**
+     * @return the value of given fact before given node, or the top
+     * value if the fact does not hold at the node.
+     */
+    public V getValue(Node node, D fact) {
+        Integer n = nodeIds.get(node);
+        Integer d = factIds.get(fact);
+        if (n == null || d == null) {
+            return problem.topValue();
+        }
+        Map<Integer, V> values = getEntryValues(node);
+        V result = problem.topValue();
+        for (Map.Entry<Long, EdgeFunction<V>> e : jumpFunctions.get(n).entrySet()) {
+            long key = e.getKey();
+            if (second(key) == d) {
+                V entryValue = values.get(first(key));
+                if (entryValue != null) {
+                    result = problem.meet(result,
+                            e.getValue().computeTarget(entryValue));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the values of all facts, except the zero fact,
+     * before given node.
+     */
+    public Map<D, V> getValues(Node node) {
+        Integer n = nodeIds.get(node);
+        if (n == null) {
+            return Map.of();
+        }
+        Map<D, V> result = Maps.newHybridMap();
+        computeValues(n, node).forEach((d, value) -> {
+            if (d != IDESolver.ZERO) {
+                result.put(facts.get(d), value);
+            }
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return the values of all facts, except the zero fact, after given
+     * node. They are computed by applying the flow functions and edge
+     * functions of the normal out-edges of the node to the values before
+     * the node. Call sites and exits have no normal out-edges, and the
+     * values after them are the same as the values before them.
+     */
+    public Map<D, V> getOutValues(Node node) {
+        Integer n = nodeIds.get(node);
+        if (n == null) {
+            return Map.of();
+        }
+        List<NormalEdge<Node>> edges = new ArrayList<>();
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+            if (edge instanceof NormalEdge<Node> normalEdge) {
+                edges.add(normalEdge);
+            }
+        }
+        if (edges.isEmpty()) {
+            return getValues(node);
+        }
+        D zero = problem.zeroValue();
+        Map<D, V> result = Maps.newHybridMap();
+        computeValues(n, node).forEach((d, value) -> {
+            D fact = facts.get(d);
+            for (NormalEdge<Node> edge : edges) {
+                for (D target : problem.getNormalFlowFunction(edge).compute(fact)) {
+                    if (!target.equals(zero)) {
+                        result.merge(target, problem.getNormalEdgeFunction(
+                                edge, fact, target).computeTarget(value),
+                                problem::meet);
+                    }
+                }
+            }
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return the values of the facts before the node with given id,
+     * including the zero fact, keyed by fact ids.
+     */
+    private Map<Integer, V> computeValues(int n, Node node) {
+        Map<Integer, V> values = getEntryValues(node);
+        Map<Integer, V> result = Maps.newHybridMap();
+        jumpFunctions.get(n).forEach((key, f) -> {
+            V entryValue = values.get(first(key));
+            if (entryValue != null) {
+                result.merge(second(key), f.computeTarget(entryValue),
+                        problem::meet);
+            }
+        });
+        return result;
+    }
+
+    private Map<Integer, V> getEntryValues(Node node) {
+        return entryValues.getOrDefault(
+                icfg.getContainingMethodOf(node), Map.of());
+    }
+}
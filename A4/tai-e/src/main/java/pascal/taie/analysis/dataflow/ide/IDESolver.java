@@ -0,0 +1,408 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.ifds.PathEdges;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.encode;
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.first;
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.second;
+
+/**
+ * Solver for IDE problems, based on the algorithm of Sagiv, Reps and
+ * Horwitz. The solver works in two phases:
+ * <ol>
+ *     <li>computes jump functions, i.e., the edge functions of path edges
+ *     from method entries, and summary functions of methods, by exploring
+ *     the ICFG on demand from the entry methods;</li>
+ *     <li>computes the values of facts at method entries, by propagating
+ *     values from the entry methods through call sites.</li>
+ * </ol>
+ * The values at other nodes are not materialized; {@link IDEResult}
+ * computes them from the jump functions when they are queried.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ * @param <V>      type of values
+ */
+public class IDESolver<Method, Node, D, V> {
+
+    private static final Logger logger = LogManager.getLogger(IDESolver.class);
+
+    /**
+     * Id of the zero fact.
+     */
+    static final int ZERO = 0;
+
+    private final IDEProblem<Node, D, V> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Map<Node, Integer> nodeIds = Maps.newMap();
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    private final Map<D, Integer> factIds = Maps.newMap();
+
+    private final List<D> facts = new ArrayList<>();
+
+    /**
+     * Jump functions indexed by node id, keyed by encoded pairs of
+     * (fact at method entry, fact at the node).
+     */
+    private final List<Map<Long, EdgeFunction<V>>> jumpFunctions = new ArrayList<>();
+
+    /**
+     * Summary functions of each method, keyed by encoded pairs of
+     * (fact at entry, fact at exit).
+     */
+    private final Map<Method, Map<Long, EdgeFunction<V>>> summaries = Maps.newMap();
+
+    /**
+     * Call sites reaching each method, which maps a fact at the method
+     * entry to the encoded (call site, fact at call site) pairs.
+     */
+    private final Map<Method, Map<Integer, Set<Long>>> incomings = Maps.newMap();
+
+    /**
+     * Ids of the reached call sites in each method.
+     */
+    private final Map<Method, Set<Integer>> callSites = Maps.newMap();
+
+    private final FunctionCache<V> composeCache =
+            new FunctionCache<>(EdgeFunction::composeWith);
+
+    private final FunctionCache<V> meetCache =
+            new FunctionCache<>(EdgeFunction::meetWith);
+
+    private final PathEdges.WorkList workList = new PathEdges.WorkList();
+
+    public IDESolver(IDEProblem<Node, D, V> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+    }
+
+    public IDEResult<Method, Node, D, V> solve() {
+        getFactId(problem.zeroValue());
+        icfg.entryMethods().forEach(method -> propagate(ZERO,
+                getNodeId(icfg.getEntryOf(method)), ZERO, problem.identity()));
+        while (!workList.isEmpty()) {
+            int d2 = workList.pop();
+            int n = workList.pop();
+            int d1 = workList.pop();
+            Node node = nodes.get(n);
+            if (icfg.isCallSite(node)) {
+                processCall(d1, n, d2);
+            } else if (isExit(node)) {
+                processExit(d1, n, d2);
+            } else {
+                processNormal(d1, n, d2);
+            }
+        }
+        Map<Method, Map<Integer, V>> entryValues = computeEntryValues();
+        logger.info("IDE: {} jump functions over {} nodes, {} facts;" +
+                        " {}/{} hits of function cache",
+                jumpFunctions.stream().mapToInt(Map::size).sum(),
+                nodes.size(), facts.size(),
+                composeCache.hits + meetCache.hits,
+                composeCache.queries + meetCache.queries);
+        return new IDEResult<>(problem, icfg, nodeIds, factIds,
+                facts, jumpFunctions, entryValues);
+    }
+
+    private void processNormal(int d1, int n, int d2) {
+        EdgeFunction<V> f = getJumpFunction(n, d1, d2);
+        D fact = facts.get(d2);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(nodes.get(n))) {
+            if (edge instanceof NormalEdge<Node> normalEdge) {
+                int target = getNodeId(edge.getTarget());
+                for (D d3 : problem.getNormalFlowFunction(normalEdge).compute(fact)) {
+                    propagate(d1, target, getFactId(d3), compose(f,
+                            problem.getNormalEdgeFunction(normalEdge, fact, d3)));
+                }
+            }
+        }
+    }
+
+    private void processCall(int d1, int n, int d2) {
+        Node callSite = nodes.get(n);
+        callSites.computeIfAbsent(icfg.getContainingMethodOf(callSite),
+                __ -> Sets.newHybridSet()).add(n);
+        EdgeFunction<V> f = getJumpFunction(n, d1, d2);
+        D fact = facts.get(d2);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge) {
+                Method callee = icfg.getContainingMethodOf(edge.getTarget());
+                int entry = getNodeId(edge.getTarget());
+                for (D d : problem.getCallFlowFunction(callEdge).compute(fact)) {
+                    int d3 = getFactId(d);
+                    propagate(d3, entry, d3, problem.identity());
+                    incomings.computeIfAbsent(callee, __ -> Maps.newMap())
+                            .computeIfAbsent(d3, __ -> Sets.newHybridSet())
+                            .add(encode(n, d2));
+                    // apply the existing summary functions of the callee
+                    Map<Long, EdgeFunction<V>> calleeSummaries = summaries.get(callee);
+                    if (calleeSummaries != null) {
+                        EdgeFunction<V> toCallee = compose(f,
+                                problem.getCallEdgeFunction(callEdge, fact, d));
+                        Node exit = icfg.getExitOf(callee);
+                        calleeSummaries.forEach((key, summary) -> {
+                            if (first(key) == d3) {
+                                applyReturn(d1, callSite,
+                                        compose(toCallee, summary), exit, second(key));
+                            }
+                        });
+                    }
+                }
+            } else if (edge instanceof CallToReturnEdge<Node> ctrEdge) {
+                int target = getNodeId(edge.getTarget());
+                for (D d3 : problem.getCallToReturnFlowFunction(ctrEdge).compute(fact)) {
+                    propagate(d1, target, getFactId(d3), compose(f,
+                            problem.getCallToReturnEdgeFunction(ctrEdge, fact, d3)));
+                }
+            }
+        }
+    }
+
+    private void processExit(int d1, int n, int d2) {
+        Node exit = nodes.get(n);
+        Method method = icfg.getContainingMethodOf(exit);
+        EdgeFunction<V> summary = getJumpFunction(n, d1, d2);
+        EdgeFunction<V> old = summaries.computeIfAbsent(method, __ -> Maps.newMap())
+                .put(encode(d1, d2), summary);
+        if (summary.equals(old)) {
+            return;
+        }
+        Map<Integer, Set<Long>> incoming = incomings.get(method);
+        if (incoming == null || !incoming.containsKey(d1)) {
+            return;
+        }
+        Node entry = icfg.getEntryOf(method);
+        for (long callSiteFact : incoming.get(d1)) {
+            int c = first(callSiteFact);
+            int dc = second(callSiteFact);
+            Node callSite = nodes.get(c);
+            EdgeFunction<V> call = problem.getCallEdgeFunction(
+                    getCallEdge(callSite, entry), facts.get(dc), facts.get(d1));
+            EdgeFunction<V> callAndSummary = compose(call, summary);
+            jumpFunctions.get(c).forEach((key, f) -> {
+                if (second(key) == dc) {
+                    applyReturn(first(key), callSite,
+                            compose(f, callAndSummary), exit, d2);
+                }
+            });
+        }
+    }
+
+    /**
+     * Propagates fact {@code d} at the exit of a callee to the return
+     * sites of {@code callSite}, as path edges starting from {@code d0}.
+     *
+     * @param f the function from {@code d0} to {@code d} at the exit
+     */
+    private void applyReturn(int d0, Node callSite, EdgeFunction<V> f,
+                             Node exit, int d) {
+        D fact = facts.get(d);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(exit)) {
+            if (edge instanceof ReturnEdge<Node> returnEdge
+                    && returnEdge.getCallSite().equals(callSite)) {
+                int target = getNodeId(edge.getTarget());
+                for (D d5 : problem.getReturnFlowFunction(returnEdge).compute(fact)) {
+                    propagate(d0, target, getFactId(d5), compose(f,
+                            problem.getReturnEdgeFunction(returnEdge, fact, d5)));
+                }
+            }
+        }
+    }
+
+    private void propagate(int d1, int n, int d2, EdgeFunction<V> f) {
+        Map<Long, EdgeFunction<V>> functions = jumpFunctions.get(n);
+        long key = encode(d1, d2);
+        EdgeFunction<V> old = functions.get(key);
+        EdgeFunction<V> result = old == null ? f : meet(old, f);
+        if (!result.equals(old)) {
+            functions.put(key, result);
+            workList.push(d1, n, d2);
+        }
+    }
+
+    /**
+     * Computes the values of facts at the entries of reachable methods.
+     */
+    private Map<Method, Map<Integer, V>> computeEntryValues() {
+        Map<Method, Map<Integer, V>> values = Maps.newMap();
+        Queue<Method> methods = new SetQueue<>();
+        icfg.entryMethods().forEach(method -> {
+            values.computeIfAbsent(method, __ -> Maps.newMap())
+                    .put(ZERO, problem.bottomValue());
+            methods.add(method);
+        });
+        while (!methods.isEmpty()) {
+            Method method = methods.poll();
+            Map<Integer, V> entryValues = values.get(method);
+            for (int c : callSites.getOrDefault(method, Set.of())) {
+                Node callSite = nodes.get(c);
+                jumpFunctions.get(c).forEach((key, f) -> {
+                    V entryValue = entryValues.get(first(key));
+                    if (entryValue == null) {
+                        return;
+                    }
+                    V value = f.computeTarget(entryValue);
+                    D fact = facts.get(second(key));
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+                        if (edge instanceof CallEdge<Node> callEdge) {
+                            Method callee = icfg.getContainingMethodOf(edge.getTarget());
+                            Map<Integer, V> calleeValues = values.computeIfAbsent(
+                                    callee, __ -> Maps.newMap());
+                            for (D d3 : problem.getCallFlowFunction(callEdge).compute(fact)) {
+                                V v3 = problem.getCallEdgeFunction(callEdge, fact, d3)
+                                        .computeTarget(value);
+                                int id3 = factIds.get(d3);
+                                V old = calleeValues.get(id3);
+                                V result = old == null ? v3 : problem.meet(old, v3);
+                                if (!result.equals(old)) {
+                                    calleeValues.put(id3, result);
+                                    methods.add(callee);
+                                }
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return values;
+    }
+
+    private EdgeFunction<V> compose(EdgeFunction<V> first, EdgeFunction<V> second) {
+        return composeCache.apply(first, second);
+    }
+
+    private EdgeFunction<V> meet(EdgeFunction<V> f1, EdgeFunction<V> f2) {
+        return meetCache.apply(f1, f2);
+    }
+
+    private EdgeFunction<V> getJumpFunction(int n, int d1, int d2) {
+        return jumpFunctions.get(n).get(encode(d1, d2));
+    }
+
+    private CallEdge<Node> getCallEdge(Node callSite, Node calleeEntry) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge
+                    && edge.getTarget().equals(calleeEntry)) {
+                return callEdge;
+            }
+        }
+        throw new IllegalStateException(
+                "No call edge from " + callSite + " to " + calleeEntry);
+    }
+
+    private boolean isExit(Node node) {
+        return icfg.getExitOf(icfg.getContainingMethodOf(node)).equals(node);
+    }
+
+    private int getNodeId(Node node) {
+        Integer id = nodeIds.get(node);
+        if (id == null) {
+            id = nodes.size();
+            nodeIds.put(node, id);
+            nodes.add(node);
+            jumpFunctions.add(Maps.newMap());
+        }
+        return id;
+    }
+
+    private int getFactId(D fact) {
+        Integer id = factIds.get(fact);
+        if (id == null) {
+            id = facts.size();
+            factIds.put(fact, id);
+            facts.add(fact);
+        }
+        return id;
+    }
+
+    /**
+     * Direct-mapped cache of the results of a binary operator on edge
+     * functions. A result evicts the one cached in the same slot, thus
+     * the cache takes constant space regardless of how many distinct
+     * functions the solver creates.
+     */
+    private static class FunctionCache<V> {
+
+        /**
+         * Number of slots, which must be a power of two.
+         */
+        private static final int SIZE = 1 << 12;
+
+        private final BinaryOperator<EdgeFunction<V>> operator;
+
+        /**
+         * Each slot takes three consecutive elements, i.e.,
+         * the two operands and the result.
+         */
+        private final Object[] entries = new Object[SIZE * 3];
+
+        private long queries = 0;
+
+        private long hits = 0;
+
+        private FunctionCache(BinaryOperator<EdgeFunction<V>> operator) {
+            this.operator = operator;
+        }
+
+        @SuppressWarnings("unchecked")
+        private EdgeFunction<V> apply(EdgeFunction<V> f1, EdgeFunction<V> f2) {
+            ++queries;
+            int hash = 31 * f1.hashCode() + f2.hashCode();
+            int i = ((hash ^ (hash >>> 16)) & (SIZE - 1)) * 3;
+            if (f1.equals(entries[i]) && f2.equals(entries[i + 1])) {
+                ++hits;
+                return (EdgeFunction<V>) entries[i + 2];
+            }
+            EdgeFunction<V> result = operator.apply(f1, f2);
+            entries[i] = f1;
+            entries[i + 1] = f2;
+            entries[i + 2] = result;
+            return result;
+        }
+    }
+}
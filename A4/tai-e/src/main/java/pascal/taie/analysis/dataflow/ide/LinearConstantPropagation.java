@@ -0,0 +1,376 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.ifds.FlowFunction;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Linear constant propagation for int values, as an IDE problem.
+ * The facts are int variables, and the edge functions are linear
+ * transformers {@code a*x+b} or constant functions. Compared to
+ * {@link ConstantPropagation}, an assignment whose right-hand side
+ * is not linear in one variable, e.g., {@code x = y * z}, is NAC
+ * unless all its operands are temporary variables holding constants,
+ * because the value of such an assignment depends on two facts, which
+ * cannot be expressed by an edge function.
+ */
+public class LinearConstantPropagation implements IDEProblem<Stmt, Var, Value> {
+
+    private static final EdgeFunction<Value> IDENTITY = new Linear(1, 0);
+
+    private static final EdgeFunction<Value> ALL_TOP = new Constant(Value.getUndef());
+
+    private static final EdgeFunction<Value> ALL_BOTTOM = new Constant(Value.getNAC());
+
+    private final Var zero = new Var(null, "<zero>", NullType.NULL, -1);
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final Set<JMethod> entryMethods;
+
+    public LinearConstantPropagation(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+        this.entryMethods = icfg.entryMethods().collect(Collectors.toSet());
+    }
+
+    public IDEResult<JMethod, Stmt, Var, Value> solve() {
+        return new IDESolver<>(this, icfg).solve();
+    }
+
+    @Override
+    public Var zeroValue() {
+        return zero;
+    }
+
+    @Override
+    public Value topValue() {
+        return Value.getUndef();
+    }
+
+    @Override
+    public Value bottomValue() {
+        return Value.getNAC();
+    }
+
+    @Override
+    public Value meet(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef() || v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    @Override
+    public EdgeFunction<Value> identity() {
+        return IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getNormalFlowFunction(NormalEdge<Stmt> edge) {
+        Stmt source = edge.getSource();
+        if (isEntryOfEntryMethod(source)) {
+            // parameters of entry methods are NAC
+            List<Var> params = getIntParams(source);
+            return d -> d == zero ? Sets.newHybridSet(params) : Set.of(d);
+        }
+        Var lhs = getIntLValue(source);
+        if (lhs == null) {
+            return Set::of;
+        }
+        Var operand = getLinear(source).operand();
+        return d -> {
+            if (d == zero) {
+                return operand == null ? Set.of(zero, lhs) : Set.of(zero);
+            } else if (d == operand) {
+                return d == lhs ? Set.of(d) : Set.of(d, lhs);
+            } else {
+                return d == lhs ? Set.of() : Set.of(d);
+            }
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> getNormalEdgeFunction(
+            NormalEdge<Stmt> edge, Var source, Var target) {
+        Stmt stmt = edge.getSource();
+        if (isEntryOfEntryMethod(stmt)) {
+            return source == zero && target != zero ? ALL_BOTTOM : IDENTITY;
+        }
+        Var lhs = getIntLValue(stmt);
+        if (lhs != null && target == lhs) {
+            LinearExp linear = getLinear(stmt);
+            // if the right-hand side has no operand, its value is
+            // generated from the zero fact
+            if (source == linear.operand()
+                    || (source == zero && linear.operand() == null)) {
+                return linear.function();
+            }
+        }
+        return IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getCallToReturnFlowFunction(CallToReturnEdge<Stmt> edge) {
+        Var lhs = ((Invoke) edge.getSource()).getResult();
+        return d -> d == lhs ? Set.of() : Set.of(d);
+    }
+
+    @Override
+    public EdgeFunction<Value> getCallToReturnEdgeFunction(
+            CallToReturnEdge<Stmt> edge, Var source, Var target) {
+        return IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getCallFlowFunction(CallEdge<Stmt> edge) {
+        List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+        IR calleeIR = edge.getCallee().getIR();
+        return d -> {
+            if (d == zero) {
+                return Set.of(zero);
+            }
+            Set<Var> result = Sets.newHybridSet();
+            for (int i = 0; i < args.size(); ++i) {
+                Var param = calleeIR.getParam(i);
+                if (args.get(i) == d && ConstantPropagation.canHoldInt(param)) {
+                    result.add(param);
+                }
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> getCallEdgeFunction(
+            CallEdge<Stmt> edge, Var source, Var target) {
+        return IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getReturnFlowFunction(ReturnEdge<Stmt> edge) {
+        Var lhs = ((Invoke) edge.getCallSite()).getResult();
+        boolean returnsInt = lhs != null && ConstantPropagation.canHoldInt(lhs);
+        return d -> {
+            if (d == zero) {
+                return Set.of(zero);
+            }
+            return returnsInt && edge.getReturnVars().contains(d) ?
+                    Set.of(lhs) : Set.of();
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> getReturnEdgeFunction(
+            ReturnEdge<Stmt> edge, Var source, Var target) {
+        return IDENTITY;
+    }
+
+    private boolean isEntryOfEntryMethod(Stmt stmt) {
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        return entryMethods.contains(method) && icfg.getEntryOf(method) == stmt;
+    }
+
+    private List<Var> getIntParams(Stmt entry) {
+        List<Var> params = new ArrayList<>();
+        params.add(zero);
+        icfg.getContainingMethodOf(entry).getIR().getParams().forEach(p -> {
+            if (ConstantPropagation.canHoldInt(p)) {
+                params.add(p);
+            }
+        });
+        return params;
+    }
+
+    /**
+     * @return the left-hand side of given statement if it is a definition
+     * of int variable, otherwise null.
+     */
+    private static Var getIntLValue(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> def
+                && !(stmt instanceof Invoke)
+                && def.getLValue() instanceof Var lhs
+                && ConstantPropagation.canHoldInt(lhs)) {
+            return lhs;
+        }
+        return null;
+    }
+
+    /**
+     * Describes the right-hand side of a definition as a function of
+     * at most one variable.
+     *
+     * @param operand  the variable that the value depends on, or null
+     *                 if the value does not depend on any variable
+     * @param function the function that computes the value
+     */
+    private record LinearExp(Var operand, EdgeFunction<Value> function) {
+    }
+
+    private static LinearExp getLinear(Stmt stmt) {
+        RValue rhs = ((DefinitionStmt<?, ?>) stmt).getRValue();
+        if (rhs instanceof IntLiteral literal) {
+            return new LinearExp(null, constant(literal.getValue()));
+        } else if (rhs instanceof Var var) {
+            Integer c = getConstant(var);
+            if (c != null) {
+                return new LinearExp(null, constant(c));
+            }
+            return ConstantPropagation.canHoldInt(var) ?
+                    new LinearExp(var, IDENTITY) :
+                    new LinearExp(null, ALL_BOTTOM);
+        } else if (rhs instanceof BinaryExp binary) {
+            Var v1 = binary.getOperand1();
+            Var v2 = binary.getOperand2();
+            Integer c1 = getConstant(v1);
+            Integer c2 = getConstant(v2);
+            if (c1 != null && c2 != null) {
+                CPFact operands = new CPFact();
+                operands.update(v1, Value.makeConstant(c1));
+                operands.update(v2, Value.makeConstant(c2));
+                Value value = ConstantPropagation.evaluate(binary, operands);
+                return new LinearExp(null, new Constant(value));
+            }
+            if (binary instanceof ArithmeticExp arith) {
+                ArithmeticExp.Op op = arith.getOperator();
+                if (c2 != null) {
+                    switch (op) {
+                        case ADD: return new LinearExp(v1, linear(1, c2));
+                        case SUB: return new LinearExp(v1, linear(1, -c2));
+                        case MUL: return new LinearExp(v1, linear(c2, 0));
+                    }
+                } else if (c1 != null) {
+                    switch (op) {
+                        case ADD: return new LinearExp(v2, linear(1, c1));
+                        case SUB: return new LinearExp(v2, linear(-1, c1));
+                        case MUL: return new LinearExp(v2, linear(c1, 0));
+                    }
+                }
+            }
+        }
+        return new LinearExp(null, ALL_BOTTOM);
+    }
+
+    /**
+     * @return the value of given variable if it is a temporary variable
+     * holding an int constant, otherwise null.
+     */
+    private static Integer getConstant(Var var) {
+        return var.isTempConst() && var.getTempConstValue() instanceof IntLiteral l ?
+                l.getValue() : null;
+    }
+
+    private static EdgeFunction<Value> constant(int c) {
+        return new Constant(Value.makeConstant(c));
+    }
+
+    private static EdgeFunction<Value> linear(int a, int b) {
+        return a == 0 ? constant(b) : new Linear(a, b);
+    }
+
+    /**
+     * Function {@code x -> a*x+b}, where {@code a} is not 0.
+     */
+    private record Linear(int a, int b) implements EdgeFunction<Value> {
+
+        @Override
+        public Value computeTarget(Value source) {
+            return source.isConstant() ?
+                    Value.makeConstant(a * source.getConstant() + b) : source;
+        }
+
+        @Override
+        public EdgeFunction<Value> composeWith(EdgeFunction<Value> second) {
+            if (second instanceof Linear g) {
+                return linear(g.a * a, g.a * b + g.b);
+            }
+            return second;
+        }
+
+        @Override
+        public EdgeFunction<Value> meetWith(EdgeFunction<Value> other) {
+            if (equals(other) || other.equals(ALL_TOP)) {
+                return this;
+            }
+            return ALL_BOTTOM;
+        }
+    }
+
+    /**
+     * Function which maps any value to {@code value}.
+     */
+    private record Constant(Value value) implements EdgeFunction<Value> {
+
+        @Override
+        public Value computeTarget(Value source) {
+            return value;
+        }
+
+        @Override
+        public EdgeFunction<Value> composeWith(EdgeFunction<Value> second) {
+            return second instanceof Linear ?
+                    new Constant(second.computeTarget(value)) : second;
+        }
+
+        @Override
+        public EdgeFunction<Value> meetWith(EdgeFunction<Value> other) {
+            if (other instanceof Constant c) {
+                if (value.isUndef()) {
+                    return other;
+                } else if (c.value.isUndef() || value.equals(c.value)) {
+                    return this;
+                }
+            } else if (value.isUndef()) {
+                return other;
+            }
+            return ALL_BOTTOM;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+/**
+ * Template interface for IFDS (inter-procedural, finite, distributive,
+ * subset) problems. The data-flow facts of a problem are elements of a
+ * finite domain, and the flow functions are given per ICFG edge.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ */
+public interface IFDSProblem<Node, D> {
+
+    /**
+     * @return the special zero fact, which holds at every reachable node.
+     */
+    D zeroValue();
+
+    FlowFunction<D> getNormalFlowFunction(NormalEdge<Node> edge);
+
+    FlowFunction<D> getCallToReturnFlowFunction(CallToReturnEdge<Node> edge);
+
+    FlowFunction<D> getCallFlowFunction(CallEdge<Node> edge);
+
+    FlowFunction<D> getReturnFlowFunction(ReturnEdge<Node> edge);
+}
@@ -0,0 +1,78 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of an IFDS problem, i.e., the facts that may hold at each node.
+ * The facts are decoded from the path edges of the solver on demand.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ */
+public class IFDSResult<Node, D> {
+
+    private final Map<Node, Integer> nodeIds;
+
+    private final List<Map<Integer, BitSet>> pathEdges;
+
+    private final List<D> facts;
+
+    IFDSResult(Map<Node, Integer> nodeIds,
+               List<Map<Integer, BitSet>> pathEdges, List<D> facts) {
+        this.nodeIds = nodeIds;
+        this.pathEdges = pathEdges;
+        this.facts = facts;
+    }
+
+    /**
+     * @return true if the given node is reachable from the entry methods.
+     */
+    public boolean isReachable(Node node) {
+        return nodeIds.containsKey(node);
+    }
+
+    /**
+     * @return the facts that may hold before the given node,
+     * excluding the zero fact.
+     */
+    public Set<D> getFactsAt(Node node) {
+        Integer id = nodeIds.get(node);
+        if (id == null) {
+            return Set.of();
+        }
+        BitSet ids = new BitSet();
+        pathEdges.get(id).values().forEach(ids::or);
+        ids.clear(IFDSSolver.ZERO);
+        Set<D> result = Sets.newHybridSet();
+        ids.stream().forEach(i -> result.add(facts.get(i)));
+        return Collections.unmodifiableSet(result);
+    }
+}
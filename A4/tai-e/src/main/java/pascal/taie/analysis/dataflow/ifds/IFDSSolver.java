@@ -0,0 +1,250 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.encode;
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.first;
+import static pascal.taie.analysis.dataflow.ifds.PathEdges.second;
+
+/**
+ * Tabulation solver for IFDS problems, which computes path edges and
+ * summary edges with the algorithm of Reps, Horwitz and Sagiv.
+ * <p>
+ * The ICFG is explored on demand from the entry methods, i.e., only the
+ * nodes and facts reached by path edges are numbered. A path edge
+ * {@code <entry, d1> -> <n, d2>} is stored as bit {@code d2} of the bit
+ * set for {@code d1} at node {@code n}, and summary edges of each method
+ * are stored in the same way, from facts at entry to facts at exit.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ */
+public class IFDSSolver<Method, Node, D> {
+
+    private static final Logger logger = LogManager.getLogger(IFDSSolver.class);
+
+    /**
+     * Id of the zero fact.
+     */
+    static final int ZERO = 0;
+
+    private final IFDSProblem<Node, D> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Map<Node, Integer> nodeIds = Maps.newMap();
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    private final Map<D, Integer> factIds = Maps.newMap();
+
+    private final List<D> facts = new ArrayList<>();
+
+    /**
+     * Path edges indexed by node id, each maps a fact at the method entry
+     * to the facts at the node.
+     */
+    private final List<Map<Integer, BitSet>> pathEdges = new ArrayList<>();
+
+    /**
+     * Summary edges of each method, from facts at entry to facts at exit.
+     */
+    private final Map<Method, Map<Integer, BitSet>> summaries = Maps.newMap();
+
+    /**
+     * Call sites reaching each method, which maps a fact at the method
+     * entry to the encoded (call site, fact at call site) pairs.
+     */
+    private final Map<Method, Map<Integer, Set<Long>>> incomings = Maps.newMap();
+
+    private final PathEdges.WorkList workList = new PathEdges.WorkList();
+
+    private int nPathEdges = 0;
+
+    public IFDSSolver(IFDSProblem<Node, D> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+    }
+
+    public IFDSResult<Node, D> solve() {
+        getFactId(problem.zeroValue());
+        icfg.entryMethods().forEach(method ->
+                propagate(ZERO, getNodeId(icfg.getEntryOf(method)), ZERO));
+        while (!workList.isEmpty()) {
+            int d2 = workList.pop();
+            int n = workList.pop();
+            int d1 = workList.pop();
+            Node node = nodes.get(n);
+            if (icfg.isCallSite(node)) {
+                processCall(d1, n, d2);
+            } else if (isExit(node)) {
+                processExit(d1, n, d2);
+            } else {
+                processNormal(d1, n, d2);
+            }
+        }
+        logger.info("IFDS: {} path edges over {} nodes, {} facts",
+                nPathEdges, nodes.size(), facts.size());
+        return new IFDSResult<>(nodeIds, pathEdges, facts);
+    }
+
+    private void processNormal(int d1, int n, int d2) {
+        D fact = facts.get(d2);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(nodes.get(n))) {
+            if (edge instanceof NormalEdge<Node> normalEdge) {
+                int target = getNodeId(edge.getTarget());
+                for (D d3 : problem.getNormalFlowFunction(normalEdge).compute(fact)) {
+                    propagate(d1, target, getFactId(d3));
+                }
+            }
+        }
+    }
+
+    private void processCall(int d1, int n, int d2) {
+        Node callSite = nodes.get(n);
+        D fact = facts.get(d2);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge) {
+                Method callee = icfg.getContainingMethodOf(edge.getTarget());
+                int entry = getNodeId(edge.getTarget());
+                for (D d : problem.getCallFlowFunction(callEdge).compute(fact)) {
+                    int d3 = getFactId(d);
+                    propagate(d3, entry, d3);
+                    incomings.computeIfAbsent(callee, __ -> Maps.newMap())
+                            .computeIfAbsent(d3, __ -> Sets.newHybridSet())
+                            .add(encode(n, d2));
+                    // apply the existing summary edges of the callee
+                    BitSet exitFacts = getSummaries(callee).get(d3);
+                    if (exitFacts != null) {
+                        Node exit = icfg.getExitOf(callee);
+                        exitFacts.stream().forEach(d4 ->
+                                applyReturn(exit, callSite, d4, d1));
+                    }
+                }
+            } else if (edge instanceof CallToReturnEdge<Node> ctrEdge) {
+                int target = getNodeId(edge.getTarget());
+                for (D d3 : problem.getCallToReturnFlowFunction(ctrEdge).compute(fact)) {
+                    propagate(d1, target, getFactId(d3));
+                }
+            }
+        }
+    }
+
+    private void processExit(int d1, int n, int d2) {
+        Method method = icfg.getContainingMethodOf(nodes.get(n));
+        BitSet exitFacts = getSummaries(method)
+                .computeIfAbsent(d1, __ -> new BitSet());
+        if (exitFacts.get(d2)) {
+            return;
+        }
+        exitFacts.set(d2);
+        Map<Integer, Set<Long>> incoming = incomings.get(method);
+        if (incoming == null || !incoming.containsKey(d1)) {
+            return;
+        }
+        Node exit = nodes.get(n);
+        for (long callSiteFact : incoming.get(d1)) {
+            int c = first(callSiteFact);
+            int d4 = second(callSiteFact);
+            Map<Integer, BitSet> callSiteEdges = pathEdges.get(c);
+            callSiteEdges.forEach((d0, callSiteFacts) -> {
+                if (callSiteFacts.get(d4)) {
+                    applyReturn(exit, nodes.get(c), d2, d0);
+                }
+            });
+        }
+    }
+
+    /**
+     * Propagates fact {@code d} at the exit of a callee to the return
+     * sites of {@code callSite}, as path edges starting from {@code d0}.
+     */
+    private void applyReturn(Node exit, Node callSite, int d, int d0) {
+        D fact = facts.get(d);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(exit)) {
+            if (edge instanceof ReturnEdge<Node> returnEdge
+                    && returnEdge.getCallSite().equals(callSite)) {
+                int target = getNodeId(edge.getTarget());
+                for (D d5 : problem.getReturnFlowFunction(returnEdge).compute(fact)) {
+                    propagate(d0, target, getFactId(d5));
+                }
+            }
+        }
+    }
+
+    private void propagate(int d1, int n, int d2) {
+        BitSet targets = pathEdges.get(n).computeIfAbsent(d1, __ -> new BitSet());
+        if (!targets.get(d2)) {
+            targets.set(d2);
+            ++nPathEdges;
+            workList.push(d1, n, d2);
+        }
+    }
+
+    private boolean isExit(Node node) {
+        return icfg.getExitOf(icfg.getContainingMethodOf(node)).equals(node);
+    }
+
+    private Map<Integer, BitSet> getSummaries(Method method) {
+        return summaries.computeIfAbsent(method, __ -> Maps.newMap());
+    }
+
+    private int getNodeId(Node node) {
+        Integer id = nodeIds.get(node);
+        if (id == null) {
+            id = nodes.size();
+            nodeIds.put(node, id);
+            nodes.add(node);
+            pathEdges.add(Maps.newMap());
+        }
+        return id;
+    }
+
+    private int getFactId(D fact) {
+        Integer id = factIds.get(fact);
+        if (id == null) {
+            id = facts.size();
+            factIds.put(fact, id);
+            facts.add(fact);
+        }
+        return id;
+    }
+}
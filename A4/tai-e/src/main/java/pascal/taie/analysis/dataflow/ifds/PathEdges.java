@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import java.util.Arrays;
+
+/**
+ * Compact representations of path edges shared by the tabulation solvers,
+ * i.e., {@link IFDSSolver} and the IDE solver. Nodes and facts are
+ * identified by ints, pairs of them are packed into longs, and the
+ * work-list stores each path edge as three consecutive ints, so that
+ * no object is allocated per path edge.
+ */
+public final class PathEdges {
+
+    private PathEdges() {
+    }
+
+    /**
+     * @return the long which packs the given pair of ints.
+     */
+    public static long encode(int first, int second) {
+        return ((long) first << 32) | (second & 0xffffffffL);
+    }
+
+    /**
+     * @return the first int of the pair packed in given long.
+     */
+    public static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    /**
+     * @return the second int of the pair packed in given long.
+     */
+    public static int second(long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * Stack of path edges {@code <entry, d1> -> <n, d2>}. The elements of
+     * an edge are popped in reverse order, i.e., {@code d2}, {@code n},
+     * and then {@code d1}.
+     */
+    public static final class WorkList {
+
+        private int[] elements = new int[48];
+
+        private int size = 0;
+
+        public void push(int d1, int n, int d2) {
+            if (size + 3 > elements.length) {
+                elements = Arrays.copyOf(elements, elements.length * 2);
+            }
+            elements[size++] = d1;
+            elements[size++] = n;
+            elements[size++] = d2;
+        }
+
+        public int pop() {
+            return elements[--size];
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
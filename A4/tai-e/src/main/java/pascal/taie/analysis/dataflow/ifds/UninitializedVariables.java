@@ -0,0 +1,160 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inter-procedural possibly-uninitialized variables analysis, which
+ * serves as the reference client of {@link IFDSSolver}. A variable is
+ * possibly uninitialized at a node if there is a valid path from the
+ * entry of its method to the node on which the variable is not assigned
+ * a value computed from initialized variables only.
+ */
+public class UninitializedVariables implements IFDSProblem<Stmt, Var> {
+
+    private final Var zero = new Var(null, "<zero>", NullType.NULL, -1);
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    public UninitializedVariables(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+    }
+
+    public IFDSResult<Stmt, Var> solve() {
+        return new IFDSSolver<>(this, icfg).solve();
+    }
+
+    @Override
+    public Var zeroValue() {
+        return zero;
+    }
+
+    @Override
+    public FlowFunction<Var> getNormalFlowFunction(NormalEdge<Stmt> edge) {
+        Stmt source = edge.getSource();
+        JMethod method = icfg.getContainingMethodOf(source);
+        if (icfg.getEntryOf(method).equals(source)) {
+            // all variables but "this" and parameters are uninitialized
+            // on method entry
+            IR ir = method.getIR();
+            return d -> {
+                if (d != zero) {
+                    return Set.of(d);
+                }
+                Set<Var> result = Sets.newHybridSet();
+                result.add(zero);
+                ir.getVars().forEach(var -> {
+                    if (var != ir.getThis() && !ir.getParams().contains(var)) {
+                        result.add(var);
+                    }
+                });
+                return result;
+            };
+        }
+        if (source instanceof Return ret) {
+            // the exit merges all return statements, thus on the path
+            // through this one, the other return variables are irrelevant
+            // and must not flow to the call site
+            Var retVar = ret.getValue();
+            List<Var> retVars = method.getIR().getReturnVars();
+            return d -> d != retVar && retVars.contains(d) ? Set.of() : Set.of(d);
+        }
+        if (source instanceof DefinitionStmt<?, ?> def
+                && def.getLValue() instanceof Var lhs) {
+            Set<Var> uses = Sets.newHybridSet();
+            source.getUses().forEach(use -> {
+                if (use instanceof Var var) {
+                    uses.add(var);
+                }
+            });
+            return d -> {
+                if (uses.contains(d)) {
+                    return d == lhs ? Set.of(d) : Set.of(d, lhs);
+                } else {
+                    return d == lhs ? Set.of() : Set.of(d);
+                }
+            };
+        }
+        return Set::of;
+    }
+
+    @Override
+    public FlowFunction<Var> getCallToReturnFlowFunction(CallToReturnEdge<Stmt> edge) {
+        Var lhs = ((Invoke) edge.getSource()).getResult();
+        return d -> d == lhs ? Set.of() : Set.of(d);
+    }
+
+    @Override
+    public FlowFunction<Var> getCallFlowFunction(CallEdge<Stmt> edge) {
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        IR calleeIR = edge.getCallee().getIR();
+        return d -> {
+            if (d == zero) {
+                return Set.of(zero);
+            }
+            Set<Var> result = Sets.newHybridSet();
+            List<Var> args = invokeExp.getArgs();
+            for (int i = 0; i < args.size(); ++i) {
+                if (args.get(i) == d) {
+                    result.add(calleeIR.getParam(i));
+                }
+            }
+            if (invokeExp instanceof InvokeInstanceExp instanceExp
+                    && instanceExp.getBase() == d && calleeIR.getThis() != null) {
+                result.add(calleeIR.getThis());
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public FlowFunction<Var> getReturnFlowFunction(ReturnEdge<Stmt> edge) {
+        Var lhs = ((Invoke) edge.getCallSite()).getResult();
+        return d -> {
+            if (d == zero) {
+                return Set.of(zero);
+            }
+            return lhs != null && edge.getReturnVars().contains(d) ?
+                    Set.of(lhs) : Set.of();
+        };
+    }
+}
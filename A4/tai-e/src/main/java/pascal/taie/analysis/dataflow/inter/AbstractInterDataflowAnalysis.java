@@ -24,7 +24,7 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
@@ -45,6 +45,11 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
         extends ProgramAnalysis
         implements InterDataflowAnalysis<Node, Fact> {
 
+    /**
+     * Default maximum number of summaries per method for summary mode.
+     */
+    private static final int DEFAULT_SUMMARY_LIMIT = 8;
+
     protected ICFG<Method, Node> icfg;
 
     protected InterSolver<Method, Node, Fact> solver;
@@ -117,12 +122,28 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected abstract Fact transferReturnEdge(ReturnEdge<Node> edge, Fact returnOut);
     // ----------------------------------------------------------------
 
+    /**
+     * Solves the analysis on the whole ICFG by default. If option
+     * {@code summary} is true, solves it by summarizing each method per
+     * distinct entry fact instead, and option {@code summary-limit}
+     * bounds the number of summaries per method. If option
+     * {@code boundary-only} is true, the solver keeps facts only at
+     * boundary nodes, see {@link InterSolver}.
+     */
     @Override
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        NodeResult<Node, Fact> result;
+        if (getOptions().getBooleanOrDefault("summary", false)) {
+            int limit = getOptions().get("summary-limit") != null ?
+                    getOptions().getInt("summary-limit") : DEFAULT_SUMMARY_LIMIT;
+            result = new SummarySolver<>(this, icfg, limit).solve();
+        } else {
+            solver = new InterSolver<>(this, icfg,
+                    getOptions().getBooleanOrDefault("boundary-only", false));
+            result = solver.solve();
+        }
         finish();
         return result;
     }
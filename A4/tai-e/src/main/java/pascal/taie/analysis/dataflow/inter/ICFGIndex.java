@@ -0,0 +1,222 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns dense ids to the nodes of an ICFG.
+ * <p>
+ * Methods are numbered in post-order of the call graph reachable from
+ * the entry methods, i.e., callees before their callers, and the nodes
+ * of each method are numbered in reverse post-order of its control flow.
+ * A work-list that always polls the smallest id thus lets callee bodies
+ * settle before the return sites in their callers are visited again.
+ */
+class ICFGIndex<Method, Node> {
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Nodes of each method, in the iteration order of the ICFG.
+     */
+    private final Map<Method, List<Node>> methodNodes = Maps.newMap();
+
+    /**
+     * Id of the first node of each method; the nodes of a method
+     * are numbered consecutively.
+     */
+    private final Map<Method, Integer> begins = Maps.newMap();
+
+    private final Map<Node, Integer> ids = Maps.newMap();
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    private final BitSet entries = new BitSet();
+
+    ICFGIndex(ICFG<Method, Node> icfg) {
+        this.icfg = icfg;
+        for (Node node : icfg) {
+            methodNodes.computeIfAbsent(icfg.getContainingMethodOf(node),
+                    __ -> new ArrayList<>()).add(node);
+        }
+        for (Method method : orderMethods()) {
+            numberNodes(method);
+        }
+        icfg.entryMethods().forEach(method ->
+                entries.set(getId(icfg.getEntryOf(method))));
+    }
+
+    /**
+     * @return number of nodes in the ICFG.
+     */
+    int size() {
+        return nodes.size();
+    }
+
+    boolean contains(Node node) {
+        return ids.containsKey(node);
+    }
+
+    int getId(Node node) {
+        return ids.get(node);
+    }
+
+    Node getNode(int id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * @return id of the first node of the given method.
+     */
+    int getBeginOf(Method method) {
+        return begins.get(method);
+    }
+
+    /**
+     * @return one plus id of the last node of the given method.
+     */
+    int getEndOf(Method method) {
+        return begins.get(method) + methodNodes.get(method).size();
+    }
+
+    /**
+     * @return true if the given node is the entry of an entry method.
+     */
+    boolean isEntry(int id) {
+        return entries.get(id);
+    }
+
+    /**
+     * @return methods in post-order of the call graph, i.e., callees
+     * are placed before callers unless they are in the same cycle.
+     */
+    private List<Method> orderMethods() {
+        List<Method> order = new ArrayList<>(methodNodes.size());
+        Set<Method> visited = Sets.newSet(methodNodes.size());
+        icfg.entryMethods().forEach(entry -> postOrder(entry, visited, order));
+        // methods that are not reachable from entry methods via call edges
+        methodNodes.keySet().forEach(m -> postOrder(m, visited, order));
+        return order;
+    }
+
+    private void postOrder(Method root, Set<Method> visited, List<Method> order) {
+        if (!visited.add(root)) {
+            return;
+        }
+        Deque<Method> stack = new ArrayDeque<>();
+        Deque<Iterator<Method>> callees = new ArrayDeque<>();
+        stack.push(root);
+        callees.push(calleesOf(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Method> it = callees.peek();
+            if (it.hasNext()) {
+                Method callee = it.next();
+                if (visited.add(callee)) {
+                    stack.push(callee);
+                    callees.push(calleesOf(callee).iterator());
+                }
+            } else {
+                order.add(stack.pop());
+                callees.pop();
+            }
+        }
+    }
+
+    /**
+     * @return callees of given method which have nodes in the ICFG;
+     * callees without CFGs, e.g., library methods out of the analysis
+     * scope, are skipped.
+     */
+    private List<Method> calleesOf(Method method) {
+        List<Method> callees = new ArrayList<>();
+        for (Node node : methodNodes.get(method)) {
+            if (icfg.isCallSite(node)) {
+                for (Method callee : icfg.getCalleesOf(node)) {
+                    if (methodNodes.containsKey(callee)) {
+                        callees.add(callee);
+                    }
+                }
+            }
+        }
+        return callees;
+    }
+
+    /**
+     * Numbers the nodes of given method in reverse post-order of its
+     * intra-procedural edges; nodes unreachable from the method entry
+     * are numbered after the others.
+     */
+    private void numberNodes(Method method) {
+        begins.put(method, nodes.size());
+        List<Node> postOrder = new ArrayList<>();
+        Set<Node> visited = Sets.newSet();
+        Node entry = icfg.getEntryOf(method);
+        visited.add(entry);
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<ICFGEdge<Node>>> edges = new ArrayDeque<>();
+        stack.push(entry);
+        edges.push(icfg.getOutEdgesOf(entry).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<ICFGEdge<Node>> it = edges.peek();
+            if (it.hasNext()) {
+                ICFGEdge<Node> edge = it.next();
+                if (!(edge instanceof CallEdge || edge instanceof ReturnEdge)
+                        && visited.add(edge.getTarget())) {
+                    stack.push(edge.getTarget());
+                    edges.push(icfg.getOutEdgesOf(edge.getTarget()).iterator());
+                }
+            } else {
+                postOrder.add(stack.pop());
+                edges.pop();
+            }
+        }
+        for (int i = postOrder.size() - 1; i >= 0; --i) {
+            add(postOrder.get(i));
+        }
+        for (Node node : methodNodes.get(method)) {
+            if (!visited.contains(node)) {
+                add(node);
+            }
+        }
+    }
+
+    private void add(Node node) {
+        ids.put(node, nodes.size());
+        nodes.add(node);
+    }
+}
@@ -22,14 +22,17 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
-import jas.CP;
+import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
-import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.ide.IDEResult;
+import pascal.taie.analysis.dataflow.ide.LinearConstantPropagation;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -45,6 +48,13 @@ import java.util.List;
 
 /**
  * Implementation of interprocedural constant propagation for int values.
+ * If option {@code ide} is true, the analysis is solved as linear constant
+ * propagation by the IDE solver instead, which does not keep a fact at
+ * every node; the facts are computed when the result is queried.
+ * Linear constant propagation is less precise: an expression over two
+ * variables which are not temporary constants, e.g., {@code a * b},
+ * is NAC even if both variables hold constants,
+ * see {@link LinearConstantPropagation}.
  */
 public class InterConstantPropagation extends
         AbstractInterDataflowAnalysis<JMethod, Stmt, CPFact> {
@@ -58,6 +68,15 @@ public class InterConstantPropagation extends
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
     }
 
+    @Override
+    public Object analyze() {
+        if (getOptions().getBooleanOrDefault("ide", false)) {
+            icfg = World.get().getResult(ICFGBuilder.ID);
+            return new LinearCPResult(new LinearConstantPropagation(icfg).solve());
+        }
+        return super.analyze();
+    }
+
     @Override
     public boolean isForward() {
         return cp.isForward();
@@ -148,4 +167,31 @@ public class InterConstantPropagation extends
 
         return out_;
     }
+
+    /**
+     * Result of linear constant propagation, which materializes the fact
+     * of a node when it is queried.
+     */
+    private class LinearCPResult implements NodeResult<Stmt, CPFact> {
+
+        private final IDEResult<JMethod, Stmt, Var, Value> result;
+
+        private LinearCPResult(IDEResult<JMethod, Stmt, Var, Value> result) {
+            this.result = result;
+        }
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            CPFact in = new CPFact();
+            result.getValues(stmt).forEach(in::update);
+            return in;
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            CPFact out = new CPFact();
+            result.getOutValues(stmt).forEach(out::update);
+            return out;
+        }
+    }
 }
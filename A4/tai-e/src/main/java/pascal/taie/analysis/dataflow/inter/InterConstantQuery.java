@@ -0,0 +1,221 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Demand-driven inter-procedural constant propagation, which answers
+ * the constant value of a variable at a statement without solving the
+ * whole ICFG. Given a query, it explores backwards from the statement
+ * through normal edges, call-to-return edges, return edges and call
+ * edges, and visits only the (statement, variable) pairs that may affect
+ * the answer. These pairs are then solved to a fixed point, and their
+ * values are cached for subsequent queries.
+ * <p>
+ * The answers are the same as the IN facts of {@link InterConstantPropagation}
+ * without alias awareness.
+ */
+public class InterConstantQuery {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final Set<JMethod> entryMethods;
+
+    /**
+     * Values of the queries that have been solved.
+     */
+    private final Map<Query, Value> solved = Maps.newMap();
+
+    public InterConstantQuery(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+        this.entryMethods = icfg.entryMethods().collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the value of {@code var} before {@code stmt}.
+     */
+    public Value valueAt(Stmt stmt, Var var) {
+        Query query = new Query(stmt, var);
+        Value value = solved.get(query);
+        if (value == null) {
+            solve(query);
+            value = solved.get(query);
+        }
+        return value;
+    }
+
+    /**
+     * @return number of (statement, variable) pairs solved so far.
+     */
+    public int getNumberOfSolvedQueries() {
+        return solved.size();
+    }
+
+    /**
+     * Solves given query and all queries it depends on.
+     */
+    private void solve(Query root) {
+        // discover the queries which the root query depends on
+        Map<Query, List<Query>> dependents = Maps.newMap();
+        dependents.put(root, new ArrayList<>());
+        Deque<Query> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Query query = stack.pop();
+            compute(query, dep -> {
+                if (!solved.containsKey(dep)) {
+                    dependents.computeIfAbsent(dep, __ -> {
+                        stack.push(dep);
+                        return new ArrayList<>();
+                    }).add(query);
+                }
+                return Value.getUndef();
+            });
+        }
+        // solve the discovered queries to a fixed point
+        Map<Query, Value> values = Maps.newMap(dependents.size());
+        Function<Query, Value> valueOf = q -> {
+            Value v = solved.get(q);
+            return v != null ? v : values.getOrDefault(q, Value.getUndef());
+        };
+        Queue<Query> workList = new SetQueue<>();
+        workList.addAll(dependents.keySet());
+        while (!workList.isEmpty()) {
+            Query query = workList.poll();
+            Value value = compute(query, valueOf);
+            if (!value.equals(valueOf.apply(query))) {
+                values.put(query, value);
+                workList.addAll(dependents.get(query));
+            }
+        }
+        dependents.keySet().forEach(q -> solved.put(q, valueOf.apply(q)));
+    }
+
+    /**
+     * Computes the value of a query from the values of the queries it
+     * depends on. All dependencies are looked up regardless of the values,
+     * so that they can be discovered by the same function.
+     */
+    private Value compute(Query query, Function<Query, Value> valueOf) {
+        Stmt stmt = query.stmt();
+        Var var = query.var();
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        Value value = Value.getUndef();
+        if (entryMethods.contains(method) && icfg.getEntryOf(method) == stmt
+                && method.getIR().getParams().contains(var)) {
+            value = Value.getNAC();
+        }
+        for (ICFGEdge<Stmt> edge : icfg.getInEdgesOf(stmt)) {
+            Value in;
+            if (edge instanceof CallEdge<Stmt> callEdge) {
+                int i = callEdge.getCallee().getIR().getParams().indexOf(var);
+                in = i < 0 ? Value.getUndef() : valueOf.apply(new Query(edge.getSource(),
+                        ((Invoke) edge.getSource()).getInvokeExp().getArg(i)));
+            } else if (edge instanceof ReturnEdge<Stmt> returnEdge) {
+                in = Value.getUndef();
+                if (((Invoke) returnEdge.getCallSite()).getResult() == var) {
+                    for (Var ret : returnEdge.getReturnVars()) {
+                        in = meet(in, valueOf.apply(new Query(edge.getSource(), ret)));
+                    }
+                }
+            } else if (edge instanceof CallToReturnEdge) {
+                in = ((Invoke) edge.getSource()).getResult() == var ?
+                        Value.getUndef() : valueOf.apply(new Query(edge.getSource(), var));
+            } else {
+                in = valueAfter(edge.getSource(), var, valueOf);
+            }
+            value = meet(value, in);
+        }
+        return value;
+    }
+
+    /**
+     * @return the value of {@code var} after non-call statement {@code stmt}.
+     */
+    private Value valueAfter(Stmt stmt, Var var, Function<Query, Value> valueOf) {
+        if (stmt instanceof DefinitionStmt<?, ?> def && def.getLValue() == var) {
+            if (!ConstantPropagation.canHoldInt(var)) {
+                return Value.getNAC();
+            }
+            Exp rhs = def.getRValue();
+            if (rhs instanceof IntLiteral literal) {
+                return Value.makeConstant(literal.getValue());
+            } else if (rhs instanceof Var v) {
+                return valueOf.apply(new Query(stmt, v));
+            } else if (rhs instanceof BinaryExp binary) {
+                CPFact operands = new CPFact();
+                for (Var operand : List.of(binary.getOperand1(), binary.getOperand2())) {
+                    operands.update(operand, valueOf.apply(new Query(stmt, operand)));
+                }
+                return ConstantPropagation.evaluate(binary, operands);
+            } else {
+                return Value.getNAC();
+            }
+        }
+        return valueOf.apply(new Query(stmt, var));
+    }
+
+    private static Value meet(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef() || v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    /**
+     * Query for the value of {@code var} before {@code stmt}.
+     */
+    private record Query(Stmt stmt, Var var) {
+    }
+}
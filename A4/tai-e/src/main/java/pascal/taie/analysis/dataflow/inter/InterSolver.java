@@ -23,20 +23,31 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
-import pascal.taie.util.collection.SetQueue;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
 
-import javax.xml.bind.annotation.XmlElementDecl;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
- * adopt work-list algorithm for efficiency.
+ * adopt work-list algorithm for efficiency. The work-list is a bit set
+ * over the node ids given by {@link ICFGIndex}, and it always polls
+ * the smallest id, so that callee bodies settle before the return sites
+ * of their callers are re-examined.
+ * <p>
+ * In boundary-only mode, facts are kept only at boundary nodes, i.e., method
+ * entries and exits, call sites, return sites, loop heads and other join
+ * points. Every other node has a single intra-procedural predecessor, thus
+ * its facts are computed from the boundary node that dominates it, when
+ * that node changes, and are dropped afterwards. The resulting facts of
+ * such nodes are recomputed in the same way when they are queried.
  */
 class InterSolver<Method, Node, Fact> {
 
@@ -44,63 +55,246 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
+    private final boolean boundaryOnly;
+
     private DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    private ICFGIndex<Method, Node> index;
+
+    /**
+     * Ids of the nodes whose facts are kept, only used in boundary-only mode.
+     */
+    private BitSet boundaries;
+
+    private WorkList workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
+        this(analysis, icfg, false);
+    }
+
+    InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                ICFG<Method, Node> icfg, boolean boundaryOnly) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.boundaryOnly = boundaryOnly;
     }
 
-    DataflowResult<Node, Fact> solve() {
+    NodeResult<Node, Fact> solve() {
         result = new DataflowResult<>();
-        initialize();
-        doSolve();
-        return result;
+        index = new ICFGIndex<>(icfg);
+        if (boundaryOnly) {
+            boundaries = computeBoundaries();
+            initialize();
+            doSolveBoundaryOnly();
+            return new BoundaryResult();
+        } else {
+            initialize();
+            doSolve();
+            return result;
+        }
+    }
+
+    /**
+     * @return ids of boundary nodes. A node is not a boundary node only if
+     * it is neither a method entry, exit nor call site, and it has a single
+     * in edge which is a forward {@link NormalEdge}.
+     */
+    private BitSet computeBoundaries() {
+        BitSet boundaries = new BitSet(index.size());
+        for (int i = 0; i < index.size(); ++i) {
+            Node node = index.getNode(i);
+            Method method = icfg.getContainingMethodOf(node);
+            if (index.isEntry(i) || icfg.isCallSite(node)
+                    || node.equals(icfg.getEntryOf(method))
+                    || node.equals(icfg.getExitOf(method))
+                    || icfg.getInEdgesOf(node).size() != 1) {
+                boundaries.set(i);
+            } else {
+                ICFGEdge<Node> inEdge = icfg.getInEdgesOf(node).iterator().next();
+                // nodes are numbered in reverse post-order, thus the source
+                // of a back edge is not numbered before its target
+                if (!(inEdge instanceof NormalEdge)
+                        || index.getId(inEdge.getSource()) >= i) {
+                    boundaries.set(i);
+                }
+            }
+        }
+        return boundaries;
     }
 
     private void initialize() {
-        // TODO
-        icfg.entryMethods().forEach(method  -> {
-            Node node = icfg.getEntryOf(method);
-            result.setInFact(node, analysis.newBoundaryFact(node));
-            result.setOutFact(node, analysis.newBoundaryFact(node));
-        });
-
-        icfg.forEach(node -> {
-            if (icfg.entryMethods().noneMatch(method -> node.equals(icfg.getEntryOf(method)))) {
+        for (int i = 0; i < index.size(); ++i) {
+            if (boundaryOnly && !boundaries.get(i)) {
+                continue;
+            }
+            Node node = index.getNode(i);
+            if (index.isEntry(i)) {
+                result.setInFact(node, analysis.newBoundaryFact(node));
+                result.setOutFact(node, analysis.newBoundaryFact(node));
+            } else {
                 result.setInFact(node, analysis.newInitialFact());
                 result.setOutFact(node, analysis.newInitialFact());
             }
-        });
+        }
     }
 
     private void doSolve() {
-        // TODO
-        workList = new LinkedList<>();
-        for (Node node : icfg) {
-            workList.offer(node);
+        workList = new WorkList(index.size());
+        for (int i = 0; i < index.size(); ++i) {
+            workList.add(i);
         }
-
         while (!workList.isEmpty()) {
-            Node node = workList.poll();
+            Node node = index.getNode(workList.poll());
             Fact in = result.getInFact(node);
             Fact out = result.getOutFact(node);
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                analysis.meetInto(analysis.transferEdge(edge,
+                        result.getOutFact(edge.getSource())), in);
+            }
+            if (analysis.transferNode(node, in, out)) {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    workList.add(index.getId(edge.getTarget()));
+                }
+            }
+        }
+    }
+
+    private void doSolveBoundaryOnly() {
+        workList = new WorkList(index.size());
+        boundaries.stream().forEach(workList::add);
+        BitSet visited = new BitSet(index.size());
+        while (!workList.isEmpty()) {
+            int id = workList.poll();
+            Node node = index.getNode(id);
+            Fact out = result.getOutFact(node);
+            // the facts of non-boundary nodes are not kept, thus they are
+            // propagated at the first visit of a boundary node even if
+            // its out fact does not change
+            if (analysis.transferNode(node, result.getInFact(node), out)
+                    || !visited.get(id)) {
+                visited.set(id);
+                propagate(node, out);
+            }
+        }
+    }
 
-            for (ICFGEdge<Node> i : icfg.getInEdgesOf(node)) {
-                analysis.meetInto(analysis.transferEdge(i, result.getOutFact(i.getSource())), in);
+    /**
+     * Pushes the out fact of given boundary node along its out edges.
+     * A boundary target meets the fact into its in fact and is added to
+     * the work-list, and the facts of other targets are computed and
+     * pushed further until reaching boundary nodes.
+     */
+    private void propagate(Node node, Fact out) {
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<Fact> outs = new ArrayDeque<>();
+        nodes.push(node);
+        outs.push(out);
+        while (!nodes.isEmpty()) {
+            Node source = nodes.pop();
+            Fact sourceOut = outs.pop();
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(source)) {
+                Node target = edge.getTarget();
+                int id = index.getId(target);
+                Fact fact = analysis.transferEdge(edge, sourceOut);
+                if (boundaries.get(id)) {
+                    analysis.meetInto(fact, result.getInFact(target));
+                    workList.add(id);
+                } else {
+                    Fact in = analysis.newInitialFact();
+                    analysis.meetInto(fact, in);
+                    Fact targetOut = analysis.newInitialFact();
+                    analysis.transferNode(target, in, targetOut);
+                    nodes.push(target);
+                    outs.push(targetOut);
+                }
             }
+        }
+    }
 
-            if (analysis.transferNode(node, in, out)) {
-                for (Node successor : icfg.getSuccsOf(node)) {
-                    if (!workList.contains(successor)) {
-                        workList.offer(successor);
-                    }
+    /**
+     * Result of boundary-only mode, which recomputes the facts of
+     * non-boundary nodes from their nearest boundary predecessors.
+     */
+    private class BoundaryResult implements NodeResult<Node, Fact> {
+
+        @Override
+        public Fact getInFact(Node node) {
+            if (!index.contains(node)) {
+                return null;
+            }
+            return boundaries.get(index.getId(node)) ?
+                    result.getInFact(node) : recompute(node, true);
+        }
+
+        @Override
+        public Fact getOutFact(Node node) {
+            if (!index.contains(node)) {
+                return null;
+            }
+            return boundaries.get(index.getId(node)) ?
+                    result.getOutFact(node) : recompute(node, false);
+        }
+
+        /**
+         * Recomputes the in (or out) fact of given non-boundary node
+         * along the single path from its nearest boundary predecessor.
+         */
+        private Fact recompute(Node node, boolean isIn) {
+            List<ICFGEdge<Node>> path = new ArrayList<>();
+            Node current = node;
+            do {
+                ICFGEdge<Node> inEdge = icfg.getInEdgesOf(current).iterator().next();
+                path.add(inEdge);
+                current = inEdge.getSource();
+            } while (!boundaries.get(index.getId(current)));
+            Fact out = result.getOutFact(current);
+            Fact in = null;
+            for (int i = path.size() - 1; i >= 0; --i) {
+                ICFGEdge<Node> edge = path.get(i);
+                in = analysis.newInitialFact();
+                analysis.meetInto(analysis.transferEdge(edge, out), in);
+                if (i == 0 && isIn) {
+                    break;
                 }
+                out = analysis.newInitialFact();
+                analysis.transferNode(edge.getTarget(), in, out);
             }
+            return isIn ? in : out;
+        }
+    }
+
+    /**
+     * Work-list of node ids which always polls the smallest id.
+     * All pending ids are not less than {@code cursor}, thus polling
+     * scans the bit set from the cursor instead of from the beginning.
+     */
+    private static class WorkList {
+
+        private final BitSet ids;
+
+        private int cursor = 0;
+
+        private WorkList(int size) {
+            ids = new BitSet(size);
         }
 
+        private void add(int id) {
+            ids.set(id);
+            if (id < cursor) {
+                cursor = id;
+            }
+        }
+
+        private boolean isEmpty() {
+            return ids.isEmpty();
+        }
+
+        private int poll() {
+            int id = ids.nextSetBit(cursor);
+            ids.clear(id);
+            cursor = id;
+            return id;
+        }
     }
 }
@@ -0,0 +1,335 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Solver for inter-procedural data-flow analysis based on the functional
+ * approach. Instead of propagating facts through the whole ICFG, each
+ * method is analyzed separately for each distinct entry fact, and the
+ * resulting exit fact is memoized as a summary of the method. A call site
+ * whose entry fact for a callee matches an existing summary reuses it,
+ * thus a method called from many sites with the same abstract arguments
+ * is analyzed only once.
+ * <p>
+ * To bound the number of summaries, once a method has {@code limit}
+ * summaries, further entry facts of it are merged into one summary.
+ * <p>
+ * As the facts of a caller grow, the entry fact passed to a callee at a
+ * call site changes, and the summary of the old entry fact is superseded.
+ * A summary that is no longer used by any call site is retired: it is
+ * dropped from the summaries of its method, so that it does not count
+ * towards the limit, it is not merged into the result, and it releases
+ * the summaries of its own callees in turn. Summaries of entry methods
+ * and merged summaries are never retired.
+ * <p>
+ * The facts of the resulting {@link DataflowResult} are merged over
+ * all summaries of the containing method, so that the result can be
+ * consumed in the same way as the result of {@link InterSolver}.
+ */
+class SummarySolver<Method, Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(SummarySolver.class);
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final int limit;
+
+    private ICFGIndex<Method, Node> index;
+
+    /**
+     * Summaries of each method, keyed by entry facts.
+     */
+    private final Map<Method, Map<Fact, Summary>> summaries = Maps.newMap();
+
+    /**
+     * Summary for the methods which have reached the limit.
+     */
+    private final Map<Method, Summary> merged = Maps.newMap();
+
+    /**
+     * Summaries which are not retired.
+     */
+    private final Set<Summary> allSummaries = Sets.newHybridOrderedSet();
+
+    /**
+     * Summaries of the entry methods.
+     */
+    private final Set<Summary> roots = Sets.newHybridSet();
+
+    private int retired = 0;
+
+    private final Queue<Summary> workList = new SetQueue<>();
+
+    SummarySolver(InterDataflowAnalysis<Node, Fact> analysis,
+                  ICFG<Method, Node> icfg, int limit) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.limit = limit;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        index = new ICFGIndex<>(icfg);
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            Summary root = newSummary(method, analysis.newBoundaryFact(entry));
+            roots.add(root);
+            workList.add(root);
+        });
+        while (!workList.isEmpty()) {
+            Summary summary = workList.poll();
+            if (!summary.retired && analyze(summary)) {
+                workList.addAll(summary.callers);
+            }
+        }
+        logger.info("{} summaries for {} methods ({} merged, {} retired)",
+                allSummaries.size(), summaries.size(), merged.size(), retired);
+        return collect();
+    }
+
+    /**
+     * Analyzes the method of given summary with its entry fact.
+     *
+     * @return true if the exit fact of the summary has been changed.
+     */
+    private boolean analyze(Summary summary) {
+        int begin = index.getBeginOf(summary.method);
+        int entry = index.getId(icfg.getEntryOf(summary.method)) - begin;
+        int exit = index.getId(icfg.getExitOf(summary.method)) - begin;
+        boolean changed = false;
+        BitSet workList = new BitSet(summary.inFacts.length);
+        workList.set(0, summary.inFacts.length);
+        for (int i = workList.nextSetBit(0); i >= 0 && !summary.retired;
+             i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Node node = index.getNode(begin + i);
+            Fact in = summary.inFacts[i];
+            Fact out = summary.outFacts[i];
+            if (i == entry) {
+                analysis.meetInto(summary.entry, in);
+            }
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                if (edge instanceof ReturnEdge<Node> returnEdge) {
+                    Node callSite = returnEdge.getCallSite();
+                    Method callee = icfg.getContainingMethodOf(edge.getSource());
+                    Fact callSiteOut = summary.outFacts[index.getId(callSite) - begin];
+                    Fact calleeEntry = analysis.transferEdge(
+                            getCallEdge(callSite, callee), callSiteOut);
+                    Summary calleeSummary = getCalleeSummary(
+                            summary, callSite, callee, calleeEntry);
+                    analysis.meetInto(analysis.transferEdge(edge,
+                            calleeSummary.getExitFact()), in);
+                } else if (!(edge instanceof CallEdge)) {
+                    analysis.meetInto(analysis.transferEdge(edge,
+                            summary.outFacts[index.getId(edge.getSource()) - begin]), in);
+                }
+            }
+            if (analysis.transferNode(node, in, out)) {
+                changed |= i == exit;
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (!(edge instanceof CallEdge || edge instanceof ReturnEdge)) {
+                        workList.set(index.getId(edge.getTarget()) - begin);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private CallEdge<Node> getCallEdge(Node callSite, Method callee) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge
+                    && callEdge.getCallee().equals(callee)) {
+                return callEdge;
+            }
+        }
+        throw new IllegalStateException(
+                "No call edge from " + callSite + " to " + callee);
+    }
+
+    /**
+     * @return the summary of given method for given entry fact.
+     * If the summary does not exist, it is created and scheduled.
+     */
+    private Summary getSummary(Method method, Fact entry) {
+        Map<Fact, Summary> byEntry = summaries.computeIfAbsent(
+                method, __ -> Maps.newMap());
+        Summary summary = byEntry.get(entry);
+        if (summary == null) {
+            Summary mergedSummary = merged.get(method);
+            // the slots of retired summaries can be taken again
+            long nSummaries = byEntry.values()
+                    .stream()
+                    .filter(s -> s != mergedSummary)
+                    .count();
+            if (nSummaries < limit) {
+                summary = newSummary(method, entry);
+            } else if (mergedSummary != null) {
+                summary = mergedSummary;
+                analysis.meetInto(entry, summary.entry);
+            } else {
+                Fact mergedEntry = analysis.newInitialFact();
+                analysis.meetInto(entry, mergedEntry);
+                summary = newSummary(method, mergedEntry);
+                merged.put(method, summary);
+            }
+            byEntry.put(entry, summary);
+            workList.add(summary);
+        }
+        return summary;
+    }
+
+    /**
+     * @return the summary of given callee for given entry fact, which is
+     * used at the call site of given caller. If the call site used another
+     * summary of the callee, that summary is released before the lookup,
+     * so that it does not take the place of the new one under the limit.
+     */
+    private Summary getCalleeSummary(Summary caller, Node callSite,
+                                     Method callee, Fact entry) {
+        Pair<Node, Method> key = new Pair<>(callSite, callee);
+        Summary old = caller.callees.get(key);
+        if (old != null && old != merged.get(callee) && !old.entry.equals(entry)) {
+            caller.callees.remove(key);
+            if (!caller.callees.containsValue(old)) {
+                release(caller, old);
+            }
+        }
+        Summary summary = getSummary(callee, entry);
+        if (!caller.retired && caller.callees.put(key, summary) != summary) {
+            summary.callers.add(caller);
+        }
+        return summary;
+    }
+
+    /**
+     * Removes given caller from the callers of given summary, and retires
+     * the summary if it has no callers any more.
+     */
+    private void release(Summary caller, Summary summary) {
+        summary.callers.remove(caller);
+        if (summary.callers.isEmpty() && !roots.contains(summary)
+                && merged.get(summary.method) != summary) {
+            summary.retired = true;
+            ++retired;
+            summaries.get(summary.method).remove(summary.entry);
+            allSummaries.remove(summary);
+            for (Summary callee : Sets.newHybridSet(summary.callees.values())) {
+                release(summary, callee);
+            }
+            summary.callees.clear();
+        }
+    }
+
+    private Summary newSummary(Method method, Fact entry) {
+        Summary summary = new Summary(method, entry,
+                index.getEndOf(method) - index.getBeginOf(method));
+        allSummaries.add(summary);
+        return summary;
+    }
+
+    /**
+     * Merges the facts of all summaries into a single result.
+     */
+    private DataflowResult<Node, Fact> collect() {
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        for (Summary summary : allSummaries) {
+            int begin = index.getBeginOf(summary.method);
+            for (int i = 0; i < summary.inFacts.length; ++i) {
+                Node node = index.getNode(begin + i);
+                analysis.meetInto(summary.inFacts[i], result.getInFact(node));
+                analysis.meetInto(summary.outFacts[i], result.getOutFact(node));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Facts of a method analyzed with a specific entry fact.
+     */
+    private class Summary {
+
+        private final Method method;
+
+        private final Fact entry;
+
+        /**
+         * In/out facts of the nodes of the method, indexed by
+         * node id minus the id of first node of the method.
+         */
+        private final Fact[] inFacts;
+
+        private final Fact[] outFacts;
+
+        /**
+         * Summaries which use this summary at their call sites.
+         */
+        private final Set<Summary> callers = Sets.newSet();
+
+        /**
+         * Summaries used at each pair of call site and callee of the method.
+         */
+        private final Map<Pair<Node, Method>, Summary> callees = Maps.newMap();
+
+        private boolean retired = false;
+
+        @SuppressWarnings("unchecked")
+        private Summary(Method method, Fact entry, int size) {
+            this.method = method;
+            this.entry = entry;
+            inFacts = (Fact[]) new Object[size];
+            outFacts = (Fact[]) new Object[size];
+            for (int i = 0; i < size; ++i) {
+                inFacts[i] = analysis.newInitialFact();
+                outFacts[i] = analysis.newInitialFact();
+            }
+        }
+
+        private Fact getExitFact() {
+            return outFacts[index.getId(icfg.getExitOf(method))
+                    - index.getBeginOf(method)];
+        }
+    }
+}
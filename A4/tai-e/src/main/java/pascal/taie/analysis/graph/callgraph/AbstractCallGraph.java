@@ -119,6 +119,15 @@ public abstract class AbstractCallGraph<CallSite, Method>
         return reachableMethods.contains(method);
     }
 
+    /**
+     * Takes a read-only snapshot of this call graph, in which methods and
+     * call sites are numbered densely and the edges are stored in flat arrays.
+     * Later modifications of this call graph are not reflected in the snapshot.
+     */
+    public FrozenCallGraph<CallSite, Method> freeze() {
+        return new FrozenCallGraph<>(this);
+    }
+
     // Implementation for Graph interface.
 
     @Override
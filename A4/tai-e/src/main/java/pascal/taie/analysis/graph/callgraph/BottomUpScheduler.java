@@ -0,0 +1,201 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Drives summary-based analyses bottom-up over a call graph.
+ * <p>
+ * The call graph is condensed into strongly connected components (SCCs),
+ * and the methods of each SCC are summarized on a fork/join pool as soon
+ * as all SCCs called by it have been summarized. The methods of a
+ * recursive SCC are summarized repeatedly until their summaries do not
+ * change, thus the summarizer should be monotone for such methods.
+ *
+ * @param <Method> type of methods
+ * @param <S>      type of summaries
+ */
+public class BottomUpScheduler<Method, S> {
+
+    private static final Logger logger = LogManager.getLogger(BottomUpScheduler.class);
+
+    /**
+     * Computes the summary of a method.
+     */
+    @FunctionalInterface
+    public interface Summarizer<Method, S> {
+
+        /**
+         * @param method    the method to be summarized
+         * @param summaries gives the summaries of callees. For callees in
+         *                  the same recursive SCC as {@code method}, it gives
+         *                  the summary of previous iteration, or {@code null}
+         *                  if the callee has not been summarized yet.
+         * @return the summary of {@code method}, which must not be null.
+         */
+        S summarize(Method method, Function<Method, S> summaries);
+    }
+
+    private final CallGraph<?, Method> callGraph;
+
+    private final int parallelism;
+
+    public BottomUpScheduler(CallGraph<?, Method> callGraph, int parallelism) {
+        this.callGraph = callGraph;
+        this.parallelism = parallelism;
+    }
+
+    public BottomUpScheduler(CallGraph<?, Method> callGraph) {
+        this(callGraph, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Summarizes all methods in the call graph.
+     *
+     * @return a thread-safe view of the summaries.
+     */
+    public Map<Method, S> schedule(Summarizer<Method, S> summarizer) {
+        return new Run(summarizer).schedule();
+    }
+
+    /**
+     * State of a single scheduling.
+     */
+    private class Run {
+
+        private final Summarizer<Method, S> summarizer;
+
+        private final MergedSCCGraph<Method> sccGraph;
+
+        private final ConcurrentMap<Method, S> summaries;
+
+        /**
+         * Number of callee SCCs that have not been summarized for each SCC.
+         */
+        private final Map<MergedNode<Method>, AtomicInteger> pendingCallees = Maps.newMap();
+
+        private final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private final AtomicInteger recursive = new AtomicInteger();
+
+        private CountDownLatch remaining;
+
+        private Run(Summarizer<Method, S> summarizer) {
+            this.summarizer = summarizer;
+            this.sccGraph = new MergedSCCGraph<>(callGraph);
+            this.summaries = Maps.newConcurrentMap(callGraph.getNumberOfMethods());
+        }
+
+        private Map<Method, S> schedule() {
+            for (MergedNode<Method> scc : sccGraph) {
+                int callees = (int) sccGraph.getSuccsOf(scc).stream()
+                        .filter(succ -> !succ.equals(scc))
+                        .count();
+                pendingCallees.put(scc, new AtomicInteger(callees));
+            }
+            remaining = new CountDownLatch(pendingCallees.size());
+            // collect the leaves before submitting any of them, as the
+            // running SCCs may release their callers concurrently
+            List<MergedNode<Method>> leaves = pendingCallees.entrySet()
+                    .stream()
+                    .filter(e -> e.getValue().get() == 0)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            leaves.forEach(this::submit);
+            try {
+                remaining.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                pool.shutdownNow();
+            }
+            if (failure.get() != null) {
+                throw new RuntimeException("Failed to summarize methods",
+                        failure.get());
+            }
+            logger.info("Summarized {} methods in {} SCCs ({} recursive) with {} threads",
+                    summaries.size(), pendingCallees.size(), recursive.get(), parallelism);
+            return Collections.unmodifiableMap(summaries);
+        }
+
+        private void submit(MergedNode<Method> scc) {
+            pool.execute(() -> {
+                try {
+                    if (failure.get() == null) {
+                        summarize(scc);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    // release the callers whose callees are all summarized
+                    for (MergedNode<Method> caller : sccGraph.getPredsOf(scc)) {
+                        if (!caller.equals(scc)
+                                && pendingCallees.get(caller).decrementAndGet() == 0) {
+                            submit(caller);
+                        }
+                    }
+                    remaining.countDown();
+                }
+            });
+        }
+
+        private void summarize(MergedNode<Method> scc) {
+            List<Method> methods = scc.getNodes();
+            Method first = methods.get(0);
+            if (methods.size() == 1 && !callGraph.getSuccsOf(first).contains(first)) {
+                summaries.put(first, summarizer.summarize(first, summaries::get));
+                return;
+            }
+            recursive.incrementAndGet();
+            boolean changed;
+            do {
+                changed = false;
+                for (Method method : methods) {
+                    S summary = summarizer.summarize(method, summaries::get);
+                    if (!Objects.equals(summaries.put(method, summary), summary)) {
+                        changed = true;
+                    }
+                }
+            } while (changed);
+        }
+    }
+}
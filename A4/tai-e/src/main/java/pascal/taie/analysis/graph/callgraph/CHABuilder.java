@@ -22,112 +22,196 @@
 
 package pascal.taie.analysis.graph.callgraph;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
-import pascal.taie.language.classes.ClassHierarchy;
-import pascal.taie.language.classes.JClass;
+import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.language.classes.Subsignature;
-import soot.jimple.toolkits.callgraph.ReachableMethods;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implementation of the CHA algorithm.
+ * <p>
+ * When built with more than one thread, the call graph is explored level
+ * by level: the IRs of the methods in the current level are built one by
+ * one, as IR construction is not thread-safe, then their call sites are
+ * resolved in parallel, and the resulting edges are added to the call
+ * graph in order. Thus the result is identical to the one built by
+ * a single thread.
+ * <p>
+ * A call site with more targets than the megamorphic limit is capped.
+ * A capped call site still has an edge to each of its targets, as dropping
+ * any of them is unsound, but its target set is the one memoized by
+ * {@link CHAResolver} for its method reference, which is shared with
+ * all other call sites of the same reference instead of being resolved
+ * again. The capped call sites are logged, so that the limit can be tuned.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
-    private ClassHierarchy hierarchy;
+    private static final Logger logger = LogManager.getLogger(CHABuilder.class);
+
+    /**
+     * Number of call sites that are listed in the statistics of capped call sites.
+     */
+    private static final int TOP_CAPPED = 10;
+
+    private final int parallelism;
+
+    private final int megamorphicLimit;
+
+    private CHAResolver resolver;
+
+    /**
+     * Number of CHA targets of each capped call site.
+     */
+    private final Map<Invoke, Integer> cappedCallSites = Maps.newConcurrentMap();
+
+    CHABuilder(int parallelism, int megamorphicLimit) {
+        this.parallelism = parallelism;
+        this.megamorphicLimit = megamorphicLimit;
+    }
+
+    CHABuilder(int parallelism) {
+        this(parallelism, Integer.MAX_VALUE);
+    }
+
+    CHABuilder() {
+        this(1);
+    }
 
     @Override
     public CallGraph<Invoke, JMethod> build() {
-        hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        resolver = new CHAResolver(World.get().getClassHierarchy());
+        JMethod entry = World.get().getMainMethod();
+        CallGraph<Invoke, JMethod> callGraph = parallelism > 1 ?
+                buildCallGraphInParallel(entry) : buildCallGraph(entry);
+        resolver.logStatistics();
+        if (!cappedCallSites.isEmpty()) {
+            logCappedCallSites();
+        }
+        return callGraph;
+    }
+
+    /**
+     * Resolves the callees of a call site, and records the call site
+     * if it is megamorphic. This method is called by multiple threads.
+     */
+    private Set<JMethod> resolve(Invoke callSite) {
+        Set<JMethod> callees = resolver.resolve(callSite);
+        if (callees.size() > megamorphicLimit) {
+            cappedCallSites.put(callSite, callees.size());
+        }
+        return callees;
+    }
+
+    private void logCappedCallSites() {
+        int targets = cappedCallSites.values()
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        logger.info("Capped {} megamorphic call sites (limit: {}), {} targets in total",
+                cappedCallSites.size(), megamorphicLimit, targets);
+        cappedCallSites.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Invoke, Integer>comparingByValue().reversed()
+                        .thenComparing(e -> CallGraphBuilder.toString(e.getKey())))
+                .limit(TOP_CAPPED)
+                .forEach(e -> logger.info("{} targets: {}", e.getValue(),
+                        CallGraphBuilder.toString(e.getKey())));
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
-        // TODO
-        Queue<JMethod> workList = new LinkedList<>();
+        Queue<JMethod> workList = new ArrayDeque<>();
         workList.offer(entry);
-
         while (!workList.isEmpty()) {
             JMethod m = workList.poll();
             if (callGraph.addReachableMethod(m)) {
                 List<Invoke> callSites = callGraph.callSitesIn(m).toList();
                 for (Invoke callSite : callSites) {
-                    Set<JMethod> T = resolve(callSite);
-                    for (JMethod jm : T) {
-                        callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), callSite, jm));
-                        workList.offer(jm);
+                    for (JMethod callee : resolve(callSite)) {
+                        callGraph.addEdge(new Edge<>(
+                                CallGraphs.getCallKind(callSite), callSite, callee));
+                        workList.offer(callee);
                     }
                 }
             }
         }
-
         return callGraph;
     }
 
-    /**
-     * Resolves call targets (callees) of a call site via CHA.
-     */
-    private Set<JMethod> resolve(Invoke callSite) {
-        // TODO
-        Set<JMethod> T = new HashSet<>();
-        Subsignature s = callSite.getMethodRef().getSubsignature();
-        // JClass c = callSite.getMethodRef().getDeclaringClass();
-        // What written below is a closer style to the slide.
-        // Tips: CallKind k = CallGraphs.getCallKind(callSite);
-
-        if (callSite.isStatic()) {
-            T.add(callSite.getMethodRef().getDeclaringClass().getDeclaredMethod(s));
-        } else if (callSite.isSpecial()) {
-            JClass c = callSite.getMethodRef().getDeclaringClass();
-            JMethod m = dispatch(c, s);
-            if (m != null) {
-                T.add(m);
-            }
-        } else if (callSite.isVirtual() || callSite.isInterface()) {
-            JClass c = callSite.getMethodRef().getDeclaringClass();
-            Queue<JClass> workList = new LinkedList<>();
-            workList.offer(c);
-            while (!workList.isEmpty()) {
-                JClass cTmp = workList.poll();
-                JMethod m = dispatch(cTmp, s);
-                if (m != null) {
-                    T.add(m);
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<JMethod> level = List.of(entry);
+            int levels = 0;
+            while (!level.isEmpty()) {
+                ++levels;
+                List<JMethod> methods = level;
+                methods.stream()
+                        .filter(m -> !m.isAbstract())
+                        .forEach(JMethod::getIR);
+                List<List<Edge<Invoke, JMethod>>> edges = pool.submit(() ->
+                        methods.parallelStream()
+                                .map(this::resolveEdges)
+                                .toList()
+                ).get();
+                methods.forEach(callGraph::addReachableMethod);
+                Set<JMethod> next = Sets.newHybridOrderedSet();
+                for (List<Edge<Invoke, JMethod>> methodEdges : edges) {
+                    for (Edge<Invoke, JMethod> edge : methodEdges) {
+                        callGraph.addEdge(edge);
+                        if (!callGraph.contains(edge.getCallee())) {
+                            next.add(edge.getCallee());
+                        }
+                    }
                 }
-                // Maybe a control-flow should be added here.
-                workList.addAll(hierarchy.getDirectImplementorsOf(cTmp));
-                workList.addAll(hierarchy.getDirectSubinterfacesOf(cTmp));
-                workList.addAll(hierarchy.getDirectSubclassesOf(cTmp));
+                level = new ArrayList<>(next);
             }
+            logger.info("CHA explored {} levels with {} threads", levels, parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted while building call graph", e);
+        } catch (ExecutionException e) {
+            throw new AnalysisException("Failed to build call graph", e.getCause());
+        } finally {
+            pool.shutdown();
         }
-        return T;
+        return callGraph;
     }
 
     /**
-     * Looks up the target method based on given class and method subsignature.
-     *
-     * @return the dispatched target method, or null if no satisfying method
-     * can be found.
+     * Resolves the callees of all call sites in a method, whose IR
+     * has been built. This method is called by multiple threads.
      */
-    private JMethod dispatch(JClass jclass, Subsignature subsignature) {
-        // TODO
-        /*
-          If jclass contains non-abstract method that has the same name
-          and descriptor as m, return this method; (But how about Interface?)
-          else getSubclass of jclass and dispatch it.
-          If there is nothing matchable, return null*/
-        if (jclass != null) {
-            JMethod m = jclass.getDeclaredMethod(subsignature);
-            if (m != null && !m.isAbstract()) {
-                return m;
+    private List<Edge<Invoke, JMethod>> resolveEdges(JMethod method) {
+        if (method.isAbstract()) {
+            return List.of();
+        }
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Invoke callSite) {
+                for (JMethod callee : resolve(callSite)) {
+                    edges.add(new Edge<>(
+                            CallGraphs.getCallKind(callSite), callSite, callee));
+                }
             }
-            return dispatch(jclass.getSuperClass(), subsignature);
         }
-        return null;
+        return edges;
     }
 }
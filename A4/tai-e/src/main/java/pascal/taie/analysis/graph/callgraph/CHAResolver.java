@@ -0,0 +1,155 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves call targets via class hierarchy, with memoized results.
+ * The dispatch results are cached per (class, subsignature) pair and
+ * the targets of virtual calls are cached per {@link MethodRef}. Both
+ * caches are safe to be accessed by multiple threads.
+ */
+class CHAResolver {
+
+    private static final Logger logger = LogManager.getLogger(CHAResolver.class);
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Dispatch results of each class, empty if no method can be dispatched.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> dispatchCache
+            = Maps.newConcurrentMap();
+
+    /**
+     * Targets of virtual and interface calls of each method reference.
+     */
+    private final Map<MethodRef, Set<JMethod>> resolveCache = Maps.newConcurrentMap();
+
+    private final LongAdder dispatchLookups = new LongAdder();
+
+    private final LongAdder dispatchMisses = new LongAdder();
+
+    private final LongAdder resolveLookups = new LongAdder();
+
+    private final LongAdder resolveMisses = new LongAdder();
+
+    CHAResolver(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * Resolves call targets (callees) of a call site via CHA.
+     */
+    Set<JMethod> resolve(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        Subsignature subsignature = methodRef.getSubsignature();
+        if (callSite.isStatic()) {
+            JMethod method = methodRef.getDeclaringClass()
+                    .getDeclaredMethod(subsignature);
+            return method != null ? Set.of(method) : Set.of();
+        } else if (callSite.isSpecial()) {
+            JMethod method = dispatch(methodRef.getDeclaringClass(), subsignature);
+            return method != null ? Set.of(method) : Set.of();
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            resolveLookups.increment();
+            Set<JMethod> targets = resolveCache.get(methodRef);
+            if (targets == null) {
+                resolveMisses.increment();
+                targets = resolveVirtual(methodRef);
+                resolveCache.putIfAbsent(methodRef, targets);
+            }
+            return targets;
+        }
+        return Set.of();
+    }
+
+    private Set<JMethod> resolveVirtual(MethodRef methodRef) {
+        Subsignature subsignature = methodRef.getSubsignature();
+        Set<JMethod> targets = Sets.newHybridSet();
+        for (JClass jclass : hierarchy.getAllSubclassesOf(methodRef.getDeclaringClass())) {
+            JMethod method = dispatch(jclass, subsignature);
+            if (method != null) {
+                targets.add(method);
+            }
+        }
+        return Collections.unmodifiableSet(targets);
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        if (jclass == null) {
+            return null;
+        }
+        dispatchLookups.increment();
+        Map<Subsignature, Optional<JMethod>> results = dispatchCache
+                .computeIfAbsent(jclass, __ -> Maps.newConcurrentMap());
+        Optional<JMethod> result = results.get(subsignature);
+        if (result == null) {
+            dispatchMisses.increment();
+            JMethod method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                method = dispatch(jclass.getSuperClass(), subsignature);
+            }
+            result = Optional.ofNullable(method);
+            results.putIfAbsent(subsignature, result);
+        }
+        return result.orElse(null);
+    }
+
+    void logStatistics() {
+        logger.info("CHA dispatch cache: {} hits of {} lookups ({}), " +
+                        "resolve cache: {} hits of {} lookups ({})",
+                dispatchLookups.sum() - dispatchMisses.sum(), dispatchLookups.sum(),
+                hitRate(dispatchLookups, dispatchMisses),
+                resolveLookups.sum() - resolveMisses.sum(), resolveLookups.sum(),
+                hitRate(resolveLookups, resolveMisses));
+    }
+
+    private static String hitRate(LongAdder lookups, LongAdder misses) {
+        long total = lookups.sum();
+        return total == 0 ? "-" : String.format("%.1f%%",
+                100.0 * (total - misses.sum()) / total);
+    }
+}
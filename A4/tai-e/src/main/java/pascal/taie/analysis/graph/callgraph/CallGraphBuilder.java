@@ -24,14 +24,19 @@ package pascal.taie.analysis.graph.callgraph;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchyImpl;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Timer;
 
+import java.io.File;
 import java.util.Collection;
 import java.util.Comparator;
 
@@ -48,38 +53,103 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     private final String algorithm;
 
+    /**
+     * Number of threads used by CHA, specified by option {@code threads}.
+     */
+    private final int threads;
+
+    /**
+     * Maximum number of CHA targets of a call site, specified by option
+     * {@code megamorphic-limit}. Call sites with more targets are capped,
+     * see {@link CHABuilder}.
+     */
+    private final int megamorphicLimit;
+
     public CallGraphBuilder(AnalysisConfig config) {
         super(config);
         algorithm = config.getOptions().getString("algorithm");
+        AnalysisOptions options = config.getOptions();
+        threads = options.get("threads") != null ?
+                options.getInt("threads") : 1;
+        megamorphicLimit = options.get("megamorphic-limit") != null ?
+                options.getInt("megamorphic-limit") : Integer.MAX_VALUE;
     }
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
-        CGBuilder<Invoke, JMethod> builder;
-        if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
-        } else {
-            throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
+        String action = getOptions().getString("action");
+        if ("load".equals(action)) {
+            CallGraph<Invoke, JMethod> callGraph = CallGraphFile.load(getBinaryFile());
+            if (callGraph != null) {
+                buildReachabilityIndex(callGraph);
+                return callGraph;
+            }
         }
+        CGBuilder<Invoke, JMethod> builder = switch (algorithm) {
+            case "cha" -> new CHABuilder(threads, megamorphicLimit);
+            case "rta" -> new RTABuilder();
+            case "vta" -> new VTABuilder();
+            default -> throw new ConfigException(
+                    "Unknown call graph building algorithm: " + algorithm);
+        };
         ClassHierarchyImpl.setCheckCHA(true);
+        Timer timer = new Timer("Call graph construction");
+        timer.start();
         CallGraph<Invoke, JMethod> callGraph = builder.build();
+        timer.stop();
         ClassHierarchyImpl.setCheckCHA(false);
+        logger.info("Call graph ({}): {} reachable methods, {} edges, built in {}s",
+                algorithm, callGraph.getNumberOfMethods(),
+                callGraph.getNumberOfEdges(), timer.inSecond());
         takeAction(callGraph);
+        buildReachabilityIndex(callGraph);
         return callGraph;
     }
 
+    /**
+     * Builds the {@link ReachabilityIndex} of the call graph and stores
+     * it in {@link World} if option {@code reachability} is true.
+     */
+    private void buildReachabilityIndex(CallGraph<Invoke, JMethod> callGraph) {
+        if (getOptions().getBooleanOrDefault("reachability", false)) {
+            World.get().storeResult(ReachabilityIndex.ID,
+                    new ReachabilityIndex<>(callGraph));
+        }
+    }
+
+    /**
+     * Processes the call graph according to option {@code action}:
+     * <ul>
+     *     <li>dump: logs the call graph and dumps it to a dot file</li>
+     *     <li>save: saves the call graph to a binary file</li>
+     *     <li>load: loads the call graph from a binary file if it exists
+     *     and matches the program, otherwise builds and saves it</li>
+     * </ul>
+     */
     private void takeAction(CallGraph<Invoke, JMethod> callGraph) {
         String action = getOptions().getString("action");
         if (action == null) {
             return;
         }
-        if (action.equals("dump")) {
-            logCallGraph(callGraph);
-            String file = getOptions().getString("file");
-            CallGraphs.dumpCallGraph(callGraph, file);
+        switch (action) {
+            case "dump" -> {
+                logCallGraph(callGraph);
+                String file = getOptions().getString("file");
+                CallGraphs.dumpCallGraph(callGraph, file);
+            }
+            case "save", "load" -> CallGraphFile.save(callGraph, getBinaryFile());
         }
     }
 
+    /**
+     * @return the binary call graph file given by option {@code file},
+     * or cg.bin in the output directory if the option is absent.
+     */
+    private File getBinaryFile() {
+        String file = getOptions().getString("file");
+        return file != null ? new File(file) : new File(Configs.getOutputDir(), "cg.bin");
+    }
+
     static void logCallGraph(CallGraph<Invoke, JMethod> callGraph) {
         Comparator<JMethod> cmp = Comparator.comparing(JMethod::toString);
         logger.info("#reachable methods: {}", callGraph.getNumberOfMethods());
@@ -101,7 +171,7 @@ public class CallGraphBuilder extends ProgramAnalysis {
         logger.info("----------------------------------------");
     }
 
-    private static String toString(Invoke invoke) {
+    static String toString(Invoke invoke) {
         return invoke.getContainer() + IRPrinter.toString(invoke);
     }
 
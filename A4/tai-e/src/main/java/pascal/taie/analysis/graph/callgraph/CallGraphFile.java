@@ -0,0 +1,572 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Saves call graphs to and loads them from a compact binary format.
+ * <p>
+ * A file consists of a header, a string table, a method table and
+ * an edge table. Methods are stored as pairs of (class name,
+ * subsignature) string ids, and call sites as pairs of (container
+ * method id, statement index). Each edge is stored as caller id,
+ * statement index, callee id and {@link CallKind} ordinal.
+ * <p>
+ * The header records the number of classes in the class hierarchy and
+ * a SHA-256 hash of the files on the class path. Loading a file whose
+ * count or hash differs from the current program, or a truncated or
+ * corrupt one, yields {@code null}, so that the caller rebuilds the
+ * call graph. Otherwise, the file is memory-mapped and loaded lazily,
+ * see {@link LazyCallGraph}.
+ */
+final class CallGraphFile {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphFile.class);
+
+    private static final int MAGIC = 0x54434732; // "TCG2"
+
+    private static final int HASH_BYTES = 32;
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private CallGraphFile() {
+    }
+
+    static void save(CallGraph<Invoke, JMethod> callGraph, File file) {
+        FrozenCallGraph<Invoke, JMethod> frozen = new FrozenCallGraph<>(callGraph);
+        // collect strings
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = Maps.newMap();
+        int[] methodStrings = new int[frozen.getNumberOfMethods() * 2];
+        for (int m = 0; m < frozen.getNumberOfMethods(); ++m) {
+            JMethod method = frozen.getMethod(m);
+            methodStrings[2 * m] = stringIds.computeIfAbsent(
+                    method.getDeclaringClass().getName(), s -> add(strings, s));
+            methodStrings[2 * m + 1] = stringIds.computeIfAbsent(
+                    method.getSubsignature().toString(), s -> add(strings, s));
+        }
+        logger.info("Saving call graph to {} ...", file);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt((int) World.get().getClassHierarchy().allClasses().count());
+            out.write(hashClassPath());
+            // string table: offsets relative to the first string, then strings
+            List<byte[]> bytes = strings.stream()
+                    .map(s -> s.getBytes(StandardCharsets.UTF_8))
+                    .toList();
+            out.writeInt(bytes.size());
+            int offset = 0;
+            for (byte[] b : bytes) {
+                out.writeInt(offset);
+                offset += Integer.BYTES + b.length;
+            }
+            for (byte[] b : bytes) {
+                out.writeInt(b.length);
+                out.write(b);
+            }
+            // method table
+            out.writeInt(frozen.getNumberOfMethods());
+            for (int s : methodStrings) {
+                out.writeInt(s);
+            }
+            out.writeInt(frozen.getNumberOfEntries());
+            for (int i = 0; i < frozen.getNumberOfEntries(); ++i) {
+                out.writeInt(frozen.getEntry(i));
+            }
+            // edge table
+            out.writeInt(frozen.getNumberOfEdges());
+            for (int cs = 0; cs < frozen.getNumberOfCallSites(); ++cs) {
+                int caller = frozen.getContainer(cs);
+                int index = frozen.getCallSite(cs).getIndex();
+                for (int e = frozen.getCalleeBegin(cs); e < frozen.getCalleeEnd(cs); ++e) {
+                    out.writeInt(caller);
+                    out.writeInt(index);
+                    out.writeInt(frozen.getCallee(e));
+                    out.writeByte(frozen.getCallKind(e).ordinal());
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to save call graph to " + file, e);
+        }
+    }
+
+    private static int add(List<String> strings, String s) {
+        strings.add(s);
+        return strings.size() - 1;
+    }
+
+    /**
+     * @return SHA-256 hash of the paths and contents of the files
+     * on the class path of the current program.
+     */
+    private static byte[] hashClassPath() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException(e);
+        }
+        String classPath = World.get().getOptions().getClassPath();
+        if (classPath == null) {
+            return digest.digest();
+        }
+        try (OutputStream sink = new DigestOutputStream(
+                OutputStream.nullOutputStream(), digest)) {
+            for (String entry : classPath.split(File.pathSeparator)) {
+                Path root = Paths.get(entry);
+                if (!Files.exists(root)) {
+                    continue;
+                }
+                List<Path> files;
+                try (Stream<Path> paths = Files.walk(root)) {
+                    files = paths.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : files) {
+                    sink.write(root.relativize(file).toString()
+                            .getBytes(StandardCharsets.UTF_8));
+                    try (InputStream in = Files.newInputStream(file)) {
+                        in.transferTo(sink);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to hash class path " + classPath, e);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * @return the loaded call graph, or null if the file does not exist
+     * or does not match the current program.
+     */
+    static DefaultCallGraph load(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        logger.info("Loading call graph from {} ...", file);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to load call graph from " + file, e);
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        try {
+            if (buffer.getInt() != MAGIC) {
+                logger.warn("{} is not a call graph file", file);
+                return null;
+            }
+            int nClasses = buffer.getInt();
+            byte[] hash = new byte[HASH_BYTES];
+            buffer.get(hash);
+            if (nClasses != hierarchy.allClasses().count()
+                    || !Arrays.equals(hash, hashClassPath())) {
+                logger.info("Program has changed, discard {}", file);
+                return null;
+            }
+            LazyCallGraph callGraph = new LazyCallGraph(buffer, hierarchy);
+            if (!callGraph.resolveEntries()) {
+                logger.info("Call graph file does not match program, discard it");
+                return null;
+            }
+            logger.info("Loaded call graph: {} reachable methods, {} edges",
+                    callGraph.getNumberOfMethods(), callGraph.getNumberOfEdges());
+            return callGraph;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                 | IllegalArgumentException | NegativeArraySizeException e) {
+            // truncated or corrupt file, treat it as stale
+            logger.warn("{} is corrupt, discard it", file);
+            return null;
+        }
+    }
+
+    /**
+     * Call graph backed by a memory-mapped call graph file.
+     * <p>
+     * Loading only checks the structure of the file and indexes its
+     * edges by caller and by callee. The strings of a method are decoded
+     * and the method is resolved when it is first referenced, and the
+     * IR of a method is built and its edges are added when its call
+     * sites, callees or callers are first queried. As queries may modify
+     * this call graph, it must not be queried by multiple threads
+     * concurrently.
+     * <p>
+     * As the file has matched the hash of the program, a method or
+     * call site that cannot be found in a query means the file has
+     * been tampered with, and results in an {@link AnalysisException}.
+     */
+    private static class LazyCallGraph extends DefaultCallGraph {
+
+        private static final int EDGE_BYTES = 3 * Integer.BYTES + Byte.BYTES;
+
+        private final ByteBuffer buffer;
+
+        private final ClassHierarchy hierarchy;
+
+        private final int stringOffsets;
+
+        private final int stringBase;
+
+        private final int methodTable;
+
+        private final JMethod[] methods;
+
+        /**
+         * Ids of resolved methods, built on first query that needs
+         * all methods.
+         */
+        private Map<JMethod, Integer> methodIds;
+
+        private final int[] entries;
+
+        private final int edgeTable;
+
+        private final int nEdges;
+
+        /**
+         * The edges out of method m are outEdges[outBegin[m]..outBegin[m+1]).
+         */
+        private final int[] outBegin;
+
+        private final int[] outEdges;
+
+        /**
+         * The edges into method m are inEdges[inBegin[m]..inBegin[m+1]).
+         */
+        private final int[] inBegin;
+
+        private final int[] inEdges;
+
+        /**
+         * Whether the edges out of a method have been added.
+         */
+        private final boolean[] loaded;
+
+        private LazyCallGraph(ByteBuffer buffer, ClassHierarchy hierarchy) {
+            this.buffer = buffer;
+            this.hierarchy = hierarchy;
+            int nStrings = buffer.getInt();
+            stringOffsets = buffer.position();
+            stringBase = stringOffsets + nStrings * Integer.BYTES;
+            // skip the strings to reach the method table
+            int end = stringBase;
+            if (nStrings > 0) {
+                end += buffer.getInt(stringBase - Integer.BYTES);
+                end += Integer.BYTES + buffer.getInt(end);
+            }
+            buffer.position(end);
+            methods = new JMethod[buffer.getInt()];
+            methodTable = buffer.position();
+            for (int i = 0; i < methods.length * 2; ++i) {
+                int string = buffer.getInt();
+                if (string < 0 || string >= nStrings) {
+                    throw new IllegalArgumentException("Invalid string id: " + string);
+                }
+            }
+            entries = new int[buffer.getInt()];
+            for (int i = 0; i < entries.length; ++i) {
+                entries[i] = checkId(buffer.getInt());
+            }
+            nEdges = buffer.getInt();
+            edgeTable = buffer.position();
+            for (int i = 0; i < nEdges; ++i) {
+                int edge = edgeTable + i * EDGE_BYTES;
+                checkId(buffer.getInt(edge));
+                checkId(buffer.getInt(edge + 2 * Integer.BYTES));
+                int kind = buffer.get(edge + 3 * Integer.BYTES);
+                if (kind < 0 || kind >= KINDS.length) {
+                    throw new IllegalArgumentException("Invalid call kind: " + kind);
+                }
+            }
+            outBegin = new int[methods.length + 1];
+            outEdges = indexEdges(0, outBegin);
+            inBegin = new int[methods.length + 1];
+            inEdges = indexEdges(2 * Integer.BYTES, inBegin);
+            loaded = new boolean[methods.length];
+        }
+
+        private int checkId(int id) {
+            if (id < 0 || id >= methods.length) {
+                throw new IllegalArgumentException("Invalid method id: " + id);
+            }
+            return id;
+        }
+
+        /**
+         * Sorts the edges by the method id at given offset of the edge
+         * records, and fills {@code begin} with the start of each method.
+         *
+         * @return the sorted edge indexes.
+         */
+        private int[] indexEdges(int offset, int[] begin) {
+            for (int i = 0; i < nEdges; ++i) {
+                ++begin[buffer.getInt(edgeTable + i * EDGE_BYTES + offset) + 1];
+            }
+            for (int m = 0; m < methods.length; ++m) {
+                begin[m + 1] += begin[m];
+            }
+            int[] next = Arrays.copyOf(begin, methods.length);
+            int[] edges = new int[nEdges];
+            for (int i = 0; i < nEdges; ++i) {
+                edges[next[buffer.getInt(edgeTable + i * EDGE_BYTES + offset)]++] = i;
+            }
+            return edges;
+        }
+
+        /**
+         * Adds the entry methods of this call graph.
+         *
+         * @return false if some entry method cannot be found.
+         */
+        private boolean resolveEntries() {
+            for (int id : entries) {
+                JMethod entry = getMethod(id);
+                if (entry == null) {
+                    return false;
+                }
+                addEntryMethod(entry);
+            }
+            return true;
+        }
+
+        /**
+         * Resolves all methods and adds them as reachable methods,
+         * without building their IR.
+         */
+        private void resolveMethods() {
+            if (methodIds == null) {
+                methodIds = Maps.newMap(methods.length);
+                for (int id = 0; id < methods.length; ++id) {
+                    JMethod method = resolve(id);
+                    methodIds.put(method, id);
+                    reachableMethods.add(method);
+                }
+            }
+        }
+
+        private void loadOutEdges(JMethod caller) {
+            resolveMethods();
+            Integer id = methodIds.get(caller);
+            if (id != null) {
+                loadOutEdges(id);
+            }
+        }
+
+        private void loadInEdges(JMethod callee) {
+            resolveMethods();
+            Integer id = methodIds.get(callee);
+            if (id != null) {
+                for (int e = inBegin[id]; e < inBegin[id + 1]; ++e) {
+                    loadOutEdges(buffer.getInt(edgeTable + inEdges[e] * EDGE_BYTES));
+                }
+            }
+        }
+
+        private void loadAllEdges() {
+            for (int id = 0; id < methods.length; ++id) {
+                loadOutEdges(id);
+            }
+        }
+
+        /**
+         * Builds the IR of the method of given id and adds its call
+         * sites and the edges out of them.
+         */
+        private void loadOutEdges(int id) {
+            if (loaded[id]) {
+                return;
+            }
+            loaded[id] = true;
+            JMethod caller = resolve(id);
+            addCallSitesIn(caller);
+            for (int e = outBegin[id]; e < outBegin[id + 1]; ++e) {
+                int edge = edgeTable + outEdges[e] * EDGE_BYTES;
+                int index = buffer.getInt(edge + Integer.BYTES);
+                JMethod callee = resolve(buffer.getInt(edge + 2 * Integer.BYTES));
+                CallKind kind = KINDS[buffer.get(edge + 3 * Integer.BYTES)];
+                if (caller.isAbstract()
+                        || index < 0 || index >= caller.getIR().getStmts().size()
+                        || !(caller.getIR().getStmt(index) instanceof Invoke callSite)
+                        || !matches(callSite, callee)) {
+                    throw new AnalysisException("Call graph file does not match "
+                            + caller + " at statement " + index);
+                }
+                addEdge(new Edge<>(kind, callSite, callee));
+            }
+        }
+
+        @Override
+        public Set<Invoke> getCallersOf(JMethod callee) {
+            loadInEdges(callee);
+            return super.getCallersOf(callee);
+        }
+
+        @Override
+        public Set<JMethod> getCalleesOf(Invoke callSite) {
+            loadOutEdges(callSite.getContainer());
+            return super.getCalleesOf(callSite);
+        }
+
+        @Override
+        public Set<Invoke> getCallSitesIn(JMethod method) {
+            loadOutEdges(method);
+            return super.getCallSitesIn(method);
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+            loadOutEdges(callSite.getContainer());
+            return super.edgesOutOf(callSite);
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+            loadInEdges(method);
+            return super.edgesInTo(method);
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edges() {
+            resolveMethods();
+            loadAllEdges();
+            return super.edges();
+        }
+
+        @Override
+        public int getNumberOfEdges() {
+            return nEdges;
+        }
+
+        @Override
+        public Stream<JMethod> reachableMethods() {
+            resolveMethods();
+            return super.reachableMethods();
+        }
+
+        @Override
+        public int getNumberOfMethods() {
+            return methods.length;
+        }
+
+        @Override
+        public boolean contains(JMethod method) {
+            resolveMethods();
+            return super.contains(method);
+        }
+
+        @Override
+        public Set<JMethod> getNodes() {
+            resolveMethods();
+            return super.getNodes();
+        }
+
+        /**
+         * @return true if {@code callee} can be the target of
+         * {@code callSite}, i.e., their subsignatures are the same.
+         */
+        private static boolean matches(Invoke callSite, JMethod callee) {
+            MethodRef methodRef = callSite.getMethodRef();
+            return methodRef.isPolymorphicSignature() ||
+                    methodRef.getSubsignature().equals(callee.getSubsignature());
+        }
+
+        /**
+         * Resolves the method of given id in a query.
+         */
+        private JMethod resolve(int id) {
+            JMethod method = getMethod(id);
+            if (method == null) {
+                throw new AnalysisException(
+                        "Call graph file does not match program, method "
+                                + id + " cannot be found");
+            }
+            return method;
+        }
+
+        /**
+         * Resolves the method of given id, decoding its signature on
+         * first access.
+         *
+         * @return the method, or null if it cannot be found.
+         */
+        private JMethod getMethod(int id) {
+            JMethod method = methods[id];
+            if (method == null) {
+                int entry = methodTable + id * 2 * Integer.BYTES;
+                JClass jclass = hierarchy.getClass(getString(buffer.getInt(entry)));
+                if (jclass != null) {
+                    method = jclass.getDeclaredMethod(Subsignature.get(
+                            getString(buffer.getInt(entry + Integer.BYTES))));
+                }
+                methods[id] = method;
+            }
+            return method;
+        }
+
+        private String getString(int id) {
+            int start = stringBase + buffer.getInt(stringOffsets + id * Integer.BYTES);
+            byte[] bytes = new byte[buffer.getInt(start)];
+            buffer.get(start + Integer.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
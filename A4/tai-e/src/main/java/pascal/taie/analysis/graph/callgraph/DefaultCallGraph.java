@@ -48,19 +48,26 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      */
     public boolean addReachableMethod(JMethod method) {
         if (reachableMethods.add(method)) {
-            if (!method.isAbstract()) {
-                method.getIR().forEach(stmt -> {
-                    if (stmt instanceof Invoke invoke) {
-                        callSiteToContainer.put(invoke, method);
-                        callSitesIn.put(method, invoke);
-                    }
-                });
-            }
+            addCallSitesIn(method);
             return true;
         }
         return false;
     }
 
+    /**
+     * Adds the call sites in the body of given method to this call graph.
+     */
+    protected void addCallSitesIn(JMethod method) {
+        if (!method.isAbstract()) {
+            method.getIR().forEach(stmt -> {
+                if (stmt instanceof Invoke invoke) {
+                    callSiteToContainer.put(invoke, method);
+                    callSitesIn.put(method, invoke);
+                }
+            });
+        }
+    }
+
     /**
      * Adds a new call graph edge to this call graph.
      *
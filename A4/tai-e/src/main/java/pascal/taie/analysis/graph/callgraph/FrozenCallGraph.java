@@ -0,0 +1,318 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only snapshot of a call graph in compressed sparse row (CSR) form.
+ * <p>
+ * Reachable methods and call sites are numbered densely from 0, and the
+ * call sites of each method are numbered consecutively. For an id {@code i},
+ * the adjacent elements are stored in {@code [begin(i), end(i))} of
+ * a flat array, e.g., the callees of call site {@code cs} are
+ * {@code getCallee(j)} for {@code getCalleeBegin(cs) <= j < getCalleeEnd(cs)}.
+ * Apart from the id lookups of methods and call sites, none of the query
+ * methods hash or allocate, so clients can traverse the call graph with
+ * plain loops over ints.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ * @see AbstractCallGraph#freeze()
+ */
+public class FrozenCallGraph<CallSite, Method> {
+
+    private final List<Method> methods;
+
+    private final Map<Method, Integer> methodIds;
+
+    private final List<CallSite> callSites;
+
+    private final Map<CallSite, Integer> callSiteIds;
+
+    private final int[] entries;
+
+    /**
+     * Container method of each call site.
+     */
+    private final int[] containers;
+
+    /**
+     * Call sites in each method, as ranges of call site ids.
+     */
+    private final int[] callSiteOffsets;
+
+    private final int[] calleeOffsets;
+
+    /**
+     * Callee method of each call edge, grouped by call sites.
+     */
+    private final int[] callees;
+
+    private final CallKind[] callKinds;
+
+    private final int[] callerOffsets;
+
+    /**
+     * Call site of each call edge, grouped by callee methods.
+     */
+    private final int[] callers;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    FrozenCallGraph(CallGraph<CallSite, Method> callGraph) {
+        methods = callGraph.reachableMethods().toList();
+        methodIds = Maps.newMap(methods.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            methodIds.put(methods.get(i), i);
+        }
+        entries = callGraph.entryMethods().mapToInt(this::getId).toArray();
+        // number call sites, method by method
+        int nMethods = methods.size();
+        List<CallSite> sites = new ArrayList<>();
+        callSiteOffsets = new int[nMethods + 1];
+        for (int m = 0; m < nMethods; ++m) {
+            callSiteOffsets[m] = sites.size();
+            sites.addAll(callGraph.getCallSitesIn(methods.get(m)));
+        }
+        callSiteOffsets[nMethods] = sites.size();
+        callSites = Collections.unmodifiableList(sites);
+        int nCallSites = callSites.size();
+        callSiteIds = Maps.newMap(nCallSites);
+        containers = new int[nCallSites];
+        for (int m = 0; m < nMethods; ++m) {
+            for (int cs = callSiteOffsets[m]; cs < callSiteOffsets[m + 1]; ++cs) {
+                callSiteIds.put(callSites.get(cs), cs);
+                containers[cs] = m;
+            }
+        }
+        // callees of each call site
+        int nEdges = callGraph.getNumberOfEdges();
+        calleeOffsets = new int[nCallSites + 1];
+        callees = new int[nEdges];
+        callKinds = new CallKind[nEdges];
+        int[] edgeCount = {0};
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            calleeOffsets[cs] = edgeCount[0];
+            callGraph.edgesOutOf(callSites.get(cs)).forEach(edge -> {
+                callees[edgeCount[0]] = getId(edge.getCallee());
+                callKinds[edgeCount[0]] = edge.getKind();
+                ++edgeCount[0];
+            });
+        }
+        calleeOffsets[nCallSites] = edgeCount[0];
+        // callers of each method, by counting sort on callees
+        callerOffsets = new int[nMethods + 1];
+        for (int callee : callees) {
+            ++callerOffsets[callee + 1];
+        }
+        for (int m = 0; m < nMethods; ++m) {
+            callerOffsets[m + 1] += callerOffsets[m];
+        }
+        callers = new int[nEdges];
+        int[] next = Arrays.copyOf(callerOffsets, nMethods);
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            for (int e = calleeOffsets[cs]; e < calleeOffsets[cs + 1]; ++e) {
+                callers[next[callees[e]]++] = cs;
+            }
+        }
+        // distinct successors and predecessors of each method
+        int[] mark = new int[nMethods];
+        Arrays.fill(mark, -1);
+        succOffsets = new int[nMethods + 1];
+        int[] succBuffer = new int[nEdges];
+        int nSuccs = 0;
+        for (int m = 0; m < nMethods; ++m) {
+            succOffsets[m] = nSuccs;
+            for (int e = calleeOffsets[callSiteOffsets[m]];
+                 e < calleeOffsets[callSiteOffsets[m + 1]]; ++e) {
+                if (mark[callees[e]] != m) {
+                    mark[callees[e]] = m;
+                    succBuffer[nSuccs++] = callees[e];
+                }
+            }
+        }
+        succOffsets[nMethods] = nSuccs;
+        succs = Arrays.copyOf(succBuffer, nSuccs);
+        Arrays.fill(mark, -1);
+        predOffsets = new int[nMethods + 1];
+        int[] predBuffer = new int[nEdges];
+        int nPreds = 0;
+        for (int m = 0; m < nMethods; ++m) {
+            predOffsets[m] = nPreds;
+            for (int e = callerOffsets[m]; e < callerOffsets[m + 1]; ++e) {
+                int caller = containers[callers[e]];
+                if (mark[caller] != m) {
+                    mark[caller] = m;
+                    predBuffer[nPreds++] = caller;
+                }
+            }
+        }
+        predOffsets[nMethods] = nPreds;
+        preds = Arrays.copyOf(predBuffer, nPreds);
+    }
+
+    public int getNumberOfMethods() {
+        return methods.size();
+    }
+
+    public int getNumberOfCallSites() {
+        return callSites.size();
+    }
+
+    public int getNumberOfEdges() {
+        return callees.length;
+    }
+
+    /**
+     * @return id of the given method, or -1 if it is not reachable.
+     */
+    public int getId(Method method) {
+        Integer id = methodIds.get(method);
+        return id != null ? id : -1;
+    }
+
+    public Method getMethod(int method) {
+        return methods.get(method);
+    }
+
+    /**
+     * @return id of the given call site, or -1 if it is not in the call graph.
+     */
+    public int getCallSiteId(CallSite callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id != null ? id : -1;
+    }
+
+    public CallSite getCallSite(int callSite) {
+        return callSites.get(callSite);
+    }
+
+    public int getNumberOfEntries() {
+        return entries.length;
+    }
+
+    public int getEntry(int i) {
+        return entries[i];
+    }
+
+    /**
+     * @return id of the method containing the given call site.
+     */
+    public int getContainer(int callSite) {
+        return containers[callSite];
+    }
+
+    /**
+     * @return id of the first call site in the given method.
+     */
+    public int getCallSiteBegin(int method) {
+        return callSiteOffsets[method];
+    }
+
+    /**
+     * @return one plus id of the last call site in the given method.
+     */
+    public int getCallSiteEnd(int method) {
+        return callSiteOffsets[method + 1];
+    }
+
+    public int getCalleeBegin(int callSite) {
+        return calleeOffsets[callSite];
+    }
+
+    public int getCalleeEnd(int callSite) {
+        return calleeOffsets[callSite + 1];
+    }
+
+    /**
+     * @return id of the callee of the i-th call edge.
+     */
+    public int getCallee(int i) {
+        return callees[i];
+    }
+
+    /**
+     * @return kind of the i-th call edge.
+     */
+    public CallKind getCallKind(int i) {
+        return callKinds[i];
+    }
+
+    public int getCallerBegin(int method) {
+        return callerOffsets[method];
+    }
+
+    public int getCallerEnd(int method) {
+        return callerOffsets[method + 1];
+    }
+
+    /**
+     * @return id of the call site of the i-th incoming call edge.
+     */
+    public int getCaller(int i) {
+        return callers[i];
+    }
+
+    public int getSuccBegin(int method) {
+        return succOffsets[method];
+    }
+
+    public int getSuccEnd(int method) {
+        return succOffsets[method + 1];
+    }
+
+    /**
+     * @return id of the i-th successor, i.e., a distinct callee method.
+     */
+    public int getSucc(int i) {
+        return succs[i];
+    }
+
+    public int getPredBegin(int method) {
+        return predOffsets[method];
+    }
+
+    public int getPredEnd(int method) {
+        return predOffsets[method + 1];
+    }
+
+    /**
+     * @return id of the i-th predecessor, i.e., a distinct caller method.
+     */
+    public int getPred(int i) {
+        return preds[i];
+    }
+}
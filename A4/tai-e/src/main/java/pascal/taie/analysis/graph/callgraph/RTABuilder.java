@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (rapid type analysis) algorithm.
+ * Compared to CHA, virtual calls are only dispatched on the classes
+ * which are instantiated by {@link New} statements in reachable methods.
+ * When a class becomes instantiated, the virtual call sites seen so far
+ * are dispatched on it, thus the call graph is built in a single pass.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private CHAResolver resolver;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private Set<JClass> instantiatedClasses;
+
+    /**
+     * Virtual call sites in reachable methods, grouped by method references.
+     */
+    private MultiMap<MethodRef, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        resolver = new CHAResolver(hierarchy);
+        callGraph = new DefaultCallGraph();
+        workList = new ArrayDeque<>();
+        instantiatedClasses = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                processNewMethod(method);
+            }
+        }
+        resolver.logStatistics();
+        return callGraph;
+    }
+
+    private void processNewMethod(JMethod method) {
+        if (!method.isAbstract()) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof New newStmt
+                        && newStmt.getRValue() instanceof NewInstance newInstance) {
+                    instantiate(newInstance.getType().getJClass());
+                }
+            }
+        }
+        for (Invoke callSite : callGraph.callSitesIn(method).toList()) {
+            if (callSite.isVirtual() || callSite.isInterface()) {
+                MethodRef methodRef = callSite.getMethodRef();
+                virtualCallSites.put(methodRef, callSite);
+                for (JClass jclass : hierarchy.getAllSubclassesOf(
+                        methodRef.getDeclaringClass())) {
+                    if (instantiatedClasses.contains(jclass)) {
+                        addEdge(callSite, resolver.dispatch(
+                                jclass, methodRef.getSubsignature()));
+                    }
+                }
+            } else {
+                resolver.resolve(callSite).forEach(callee -> addEdge(callSite, callee));
+            }
+        }
+    }
+
+    private void instantiate(JClass jclass) {
+        if (jclass == null || !instantiatedClasses.add(jclass)) {
+            return;
+        }
+        virtualCallSites.forEachSet((methodRef, callSites) -> {
+            if (hierarchy.isSubclass(methodRef.getDeclaringClass(), jclass)) {
+                JMethod callee = resolver.dispatch(jclass, methodRef.getSubsignature());
+                callSites.forEach(callSite -> addEdge(callSite, callee));
+            }
+        });
+    }
+
+    private void addEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Index for answering whether a method can transitively reach another
+ * method in a call graph.
+ * <p>
+ * The call graph is condensed into a DAG of strongly connected components
+ * (SCCs), which are numbered in topological order. Each SCC is labeled
+ * by the interval of its subtree in a depth-first spanning tree, and by
+ * several GRAIL intervals, i.e., {@code [low, rank]} where rank is the
+ * post-order number of the SCC in a randomized depth-first traversal and
+ * low is the smallest rank of its descendants. A query is answered from
+ * the labels in most cases: the topological numbers and GRAIL intervals
+ * refute unreachable pairs, and the spanning tree confirms reachable pairs
+ * along tree paths. Only the remaining pairs are resolved by a depth-first
+ * search that is pruned with the same labels. The index takes linear space,
+ * instead of materializing the transitive closure.
+ *
+ * @param <Method> type of methods
+ */
+public class ReachabilityIndex<Method> {
+
+    /**
+     * Key of the index in {@link pascal.taie.World}, which is stored
+     * by {@link CallGraphBuilder} if option {@code reachability} is true.
+     */
+    public static final String ID = "cg-reachability";
+
+    private static final Logger logger = LogManager.getLogger(ReachabilityIndex.class);
+
+    /**
+     * Default number of GRAIL intervals of each SCC.
+     */
+    private static final int DEFAULT_LABELS = 2;
+
+    /**
+     * Map from each method to the topological number of its SCC.
+     */
+    private final Map<Method, Integer> sccIds = Maps.newMap();
+
+    /**
+     * Successors of SCC {@code i} are {@code succs[succBegins[i]]}
+     * to {@code succs[succBegins[i + 1] - 1]}.
+     */
+    private final int[] succBegins;
+
+    private final int[] succs;
+
+    /**
+     * Pre-order number of each SCC in the spanning tree, and the largest
+     * pre-order number in its subtree.
+     */
+    private final int[] pre;
+
+    private final int[] last;
+
+    private final int[][] lows;
+
+    private final int[][] ranks;
+
+    public ReachabilityIndex(CallGraph<?, Method> callGraph) {
+        this(callGraph, DEFAULT_LABELS);
+    }
+
+    /**
+     * @param labels number of GRAIL intervals of each SCC, at least one
+     */
+    public ReachabilityIndex(CallGraph<?, Method> callGraph, int labels) {
+        if (labels < 1) {
+            throw new IllegalArgumentException(
+                    "Number of labels should be positive, given: " + labels);
+        }
+        MergedSCCGraph<Method> sccGraph = new MergedSCCGraph<>(callGraph);
+        List<MergedNode<Method>> sccs = new TopoSorter<>(sccGraph).get();
+        int n = sccs.size();
+        Map<MergedNode<Method>, Integer> ids = Maps.newMap(n);
+        for (MergedNode<Method> scc : sccs) {
+            int id = ids.size();
+            ids.put(scc, id);
+            scc.getNodes().forEach(method -> sccIds.put(method, id));
+        }
+        succBegins = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            succBegins[i + 1] = succBegins[i] + sccGraph.getSuccsOf(sccs.get(i)).size();
+        }
+        succs = new int[succBegins[n]];
+        for (int i = 0, j = 0; i < n; ++i) {
+            for (MergedNode<Method> succ : sccGraph.getSuccsOf(sccs.get(i))) {
+                succs[j++] = ids.get(succ);
+            }
+        }
+        pre = new int[n];
+        last = new int[n];
+        lows = new int[labels][];
+        ranks = new int[labels][];
+        Random random = new Random(n);
+        for (int k = 0; k < labels; ++k) {
+            lows[k] = new int[n];
+            ranks[k] = new int[n];
+            traverse(k, k == 0 ? null : random);
+        }
+        logger.info("Reachability index: {} methods, {} SCCs, {} SCC edges",
+                sccIds.size(), n, succs.length);
+    }
+
+    /**
+     * Labels the SCCs by the k-th depth-first traversal. The first traversal
+     * visits successors in order and also computes the spanning tree
+     * intervals; the others start from a random successor of each SCC.
+     */
+    private void traverse(int k, Random random) {
+        int n = pre.length;
+        int[] low = lows[k];
+        int[] rank = ranks[k];
+        int[] stack = new int[n];
+        int[] visitedSuccs = new int[n];
+        int[] offsets = new int[n];
+        BitSet visited = new BitSet(n);
+        int top = 0, nextPre = 0, nextRank = 0;
+        for (int root = 0; root < n; ++root) {
+            if (visited.get(root)) {
+                continue;
+            }
+            visited.set(root);
+            low[root] = Integer.MAX_VALUE;
+            if (random == null) {
+                pre[root] = nextPre++;
+            }
+            stack[top++] = root;
+            while (top > 0) {
+                int scc = stack[top - 1];
+                int degree = succBegins[scc + 1] - succBegins[scc];
+                if (visitedSuccs[scc] < degree) {
+                    if (visitedSuccs[scc] == 0 && random != null) {
+                        offsets[scc] = random.nextInt(degree);
+                    }
+                    int succ = succs[succBegins[scc]
+                            + (offsets[scc] + visitedSuccs[scc]++) % degree];
+                    if (!visited.get(succ)) {
+                        visited.set(succ);
+                        low[succ] = Integer.MAX_VALUE;
+                        if (random == null) {
+                            pre[succ] = nextPre++;
+                        }
+                        stack[top++] = succ;
+                    } else {
+                        // the graph is acyclic, thus succ has been finished
+                        low[scc] = Math.min(low[scc], low[succ]);
+                    }
+                } else {
+                    --top;
+                    rank[scc] = nextRank++;
+                    low[scc] = Math.min(low[scc], rank[scc]);
+                    if (random == null) {
+                        last[scc] = nextPre - 1;
+                    }
+                    if (top > 0) {
+                        int parent = stack[top - 1];
+                        low[parent] = Math.min(low[parent], low[scc]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if {@code from} can reach {@code to} via zero or more
+     * calls, i.e., every method can reach itself. Methods that are not
+     * in the call graph cannot reach or be reached by any method.
+     */
+    public boolean canReach(Method from, Method to) {
+        Integer source = sccIds.get(from);
+        Integer target = sccIds.get(to);
+        if (source == null || target == null) {
+            return false;
+        }
+        return reachesByLabels(source, target) || search(source, target);
+    }
+
+    /**
+     * @return true if SCC {@code target} is a descendant of SCC
+     * {@code source} in the spanning tree, including itself.
+     */
+    private boolean isTreeDescendant(int source, int target) {
+        return pre[source] <= pre[target] && pre[target] <= last[source];
+    }
+
+    /**
+     * @return false if the labels show that {@code source} cannot reach
+     * {@code target}, otherwise true.
+     */
+    private boolean mayReach(int source, int target) {
+        if (source > target) {
+            return false;
+        }
+        for (int k = 0; k < lows.length; ++k) {
+            if (lows[k][target] < lows[k][source]
+                    || ranks[k][target] > ranks[k][source]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the labels show that {@code source} can reach
+     * {@code target}.
+     */
+    private boolean reachesByLabels(int source, int target) {
+        return source == target || isTreeDescendant(source, target);
+    }
+
+    /**
+     * Resolves the query by a depth-first search pruned with the labels.
+     */
+    private boolean search(int source, int target) {
+        if (!mayReach(source, target)) {
+            return false;
+        }
+        BitSet visited = new BitSet(pre.length);
+        int[] stack = new int[pre.length];
+        int top = 0;
+        stack[top++] = source;
+        visited.set(source);
+        while (top > 0) {
+            int scc = stack[--top];
+            for (int i = succBegins[scc]; i < succBegins[scc + 1]; ++i) {
+                int succ = succs[i];
+                if (reachesByLabels(succ, target)) {
+                    return true;
+                }
+                if (!visited.get(succ) && mayReach(succ, target)) {
+                    visited.set(succ);
+                    stack[top++] = succ;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the VTA (variable type analysis) algorithm.
+ * <p>
+ * Starting from the call graph built by {@link RTABuilder}, VTA builds
+ * a type propagation graph whose nodes are variables, fields (one node
+ * per field, regardless of the base object) and array elements (one node
+ * per array type), and whose edges come from copies, casts, field and
+ * array accesses, parameter passing and returns. As arrays are covariant,
+ * e.g., a {@code Shape[]} may be accessed via a variable of
+ * {@code Object[]}, the element nodes of array types which may be the
+ * types of the same array are connected with each other. The SCCs of the graph
+ * are collapsed and the instantiated types are propagated along it in
+ * topological order, so each node is visited once. Virtual calls are then
+ * only dispatched on the types which reach their receiver variables.
+ * <p>
+ * Variables that may hold objects not modeled by the graph, e.g., caught
+ * exceptions and results of native calls, are marked as unknown,
+ * and virtual calls on them keep all the callees found by RTA.
+ */
+class VTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private static final Logger logger = LogManager.getLogger(VTABuilder.class);
+
+    private ClassHierarchy hierarchy;
+
+    private TypeSystem typeSystem;
+
+    private CHAResolver resolver;
+
+    /**
+     * The initial call graph which is used to connect parameters
+     * and return values.
+     */
+    private CallGraph<Invoke, JMethod> baseGraph;
+
+    private SimpleGraph<Object> typeGraph;
+
+    /**
+     * Array types whose element nodes are in the type graph.
+     */
+    private Set<ArrayType> arrayTypes;
+
+    /**
+     * Types instantiated at each node of the type graph.
+     */
+    private Map<Object, Set<JClass>> seeds;
+
+    /**
+     * Nodes which may receive objects from sources outside the type graph.
+     */
+    private Set<Object> unknownSeeds;
+
+    /**
+     * Types reaching each node of the type graph.
+     */
+    private Map<Object, Set<JClass>> reachingTypes;
+
+    private Set<Object> unknownNodes;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        typeSystem = World.get().getTypeSystem();
+        resolver = new CHAResolver(hierarchy);
+        baseGraph = new RTABuilder().build();
+        buildTypeGraph();
+        propagateTypes();
+        CallGraph<Invoke, JMethod> callGraph = buildCallGraph();
+        logger.info("VTA: {} type graph nodes, {} call edges pruned from RTA",
+                typeGraph.getNumberOfNodes(),
+                baseGraph.getNumberOfEdges() - callGraph.getNumberOfEdges());
+        resolver.logStatistics();
+        return callGraph;
+    }
+
+    private void buildTypeGraph() {
+        typeGraph = new SimpleGraph<>();
+        arrayTypes = Sets.newHybridOrderedSet();
+        seeds = Maps.newMap();
+        unknownSeeds = Sets.newSet();
+        JMethod entry = World.get().getMainMethod();
+        entry.getIR().getParams().forEach(unknownSeeds::add);
+        baseGraph.reachableMethods()
+                .filter(method -> !method.isAbstract())
+                .forEach(method -> method.getIR().forEach(this::processStmt));
+        connectArrayTypes();
+    }
+
+    private void processStmt(Stmt stmt) {
+        if (stmt instanceof New newStmt) {
+            if (newStmt.getRValue() instanceof NewInstance newInstance) {
+                addSeed(newStmt.getLValue(), newInstance.getType().getJClass());
+            }
+        } else if (stmt instanceof AssignLiteral assign) {
+            if (assign.getRValue() instanceof ReferenceLiteral literal
+                    && literal.getType() instanceof ClassType type) {
+                addSeed(assign.getLValue(), type.getJClass());
+            }
+        } else if (stmt instanceof Copy copy) {
+            addEdge(copy.getRValue(), copy.getLValue());
+        } else if (stmt instanceof Cast cast) {
+            addEdge(cast.getRValue().getValue(), cast.getLValue());
+        } else if (stmt instanceof LoadField load) {
+            addEdge(resolveField(load.getFieldRef()), load.getLValue());
+        } else if (stmt instanceof StoreField store) {
+            addEdge(store.getRValue(), resolveField(store.getFieldRef()));
+        } else if (stmt instanceof LoadArray load) {
+            addEdge(getArrayNode(load.getArrayAccess().getBase()), load.getLValue());
+        } else if (stmt instanceof StoreArray store) {
+            addEdge(store.getRValue(), getArrayNode(store.getArrayAccess().getBase()));
+        } else if (stmt instanceof Catch catchStmt) {
+            unknownSeeds.add(catchStmt.getExceptionRef());
+        } else if (stmt instanceof Invoke invoke) {
+            processInvoke(invoke);
+        }
+    }
+
+    private void processInvoke(Invoke invoke) {
+        Var result = invoke.getResult();
+        Set<JMethod> callees = baseGraph.getCalleesOf(invoke);
+        if (result != null && callees.isEmpty()) {
+            unknownSeeds.add(result);
+        }
+        for (JMethod callee : callees) {
+            IR ir = callee.getIR();
+            if (invoke.getInvokeExp() instanceof InvokeInstanceExp exp
+                    && ir.getThis() != null) {
+                addEdge(exp.getBase(), ir.getThis());
+            }
+            for (int i = 0; i < ir.getParams().size(); ++i) {
+                addEdge(invoke.getInvokeExp().getArg(i), ir.getParam(i));
+            }
+            if (result != null) {
+                if (callee.isNative()) {
+                    unknownSeeds.add(result);
+                }
+                ir.getReturnVars().forEach(ret -> addEdge(ret, result));
+            }
+        }
+    }
+
+    /**
+     * @return the node of the field referenced by given reference. The field
+     * is looked up in the class of the reference and its supertypes, and
+     * the reference itself is the node if the field cannot be found.
+     */
+    private static Object resolveField(FieldRef fieldRef) {
+        JField field = resolveField(fieldRef.getDeclaringClass(), fieldRef.getName());
+        return field != null ? field : fieldRef;
+    }
+
+    private static JField resolveField(JClass jclass, String name) {
+        if (jclass == null) {
+            return null;
+        }
+        JField field = jclass.getDeclaredField(name);
+        if (field != null) {
+            return field;
+        }
+        for (JClass iface : jclass.getInterfaces()) {
+            field = resolveField(iface, name);
+            if (field != null) {
+                return field;
+            }
+        }
+        return resolveField(jclass.getSuperClass(), name);
+    }
+
+    /**
+     * @return the element node of the array held by given variable.
+     */
+    private Object getArrayNode(Var base) {
+        Type type = base.getType();
+        if (type instanceof ArrayType arrayType) {
+            arrayTypes.add(arrayType);
+        }
+        return type;
+    }
+
+    /**
+     * Connects the element nodes of each pair of array types which may be
+     * the types of the same array. This is quadratic in the number of array
+     * types that are accessed, which is small in practice.
+     */
+    private void connectArrayTypes() {
+        List<ArrayType> types = new ArrayList<>(arrayTypes);
+        for (int i = 0; i < types.size(); ++i) {
+            for (int j = i + 1; j < types.size(); ++j) {
+                ArrayType t1 = types.get(i);
+                ArrayType t2 = types.get(j);
+                if (mayHaveCommonSubtype(t1.elementType(), t2.elementType())) {
+                    addEdge(t1, t2);
+                    addEdge(t2, t1);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if a type may be a subtype of both given types.
+     * A class and an interface may have a common subtype unless the class
+     * is final and does not implement the interface.
+     */
+    private boolean mayHaveCommonSubtype(Type t1, Type t2) {
+        if (typeSystem.isSubtype(t1, t2) || typeSystem.isSubtype(t2, t1)) {
+            return true;
+        } else if (t1 instanceof ArrayType a1 && t2 instanceof ArrayType a2) {
+            return mayHaveCommonSubtype(a1.elementType(), a2.elementType());
+        } else if (t1 instanceof ClassType c1 && t2 instanceof ClassType c2) {
+            JClass class1 = c1.getJClass();
+            JClass class2 = c2.getJClass();
+            return (class1.isInterface() && !class2.isFinal())
+                    || (class2.isInterface() && !class1.isFinal());
+        }
+        return false;
+    }
+
+    private void addSeed(Object node, JClass type) {
+        typeGraph.addNode(node);
+        seeds.computeIfAbsent(node, __ -> Sets.newHybridSet()).add(type);
+    }
+
+    private void addEdge(Object source, Object target) {
+        if (source != null && target != null) {
+            typeGraph.addNode(source);
+            typeGraph.addNode(target);
+            typeGraph.addEdge(source, target);
+        }
+    }
+
+    /**
+     * Propagates the seeds along the type graph. All nodes in the same SCC
+     * reach the same types, thus they share one set.
+     */
+    private void propagateTypes() {
+        unknownSeeds.forEach(typeGraph::addNode);
+        MergedSCCGraph<Object> sccGraph = new MergedSCCGraph<>(typeGraph);
+        Map<MergedNode<Object>, Set<JClass>> sccTypes =
+                Maps.newMap(sccGraph.getNumberOfNodes());
+        Set<MergedNode<Object>> unknownSCCs = Sets.newSet();
+        reachingTypes = Maps.newMap(typeGraph.getNumberOfNodes());
+        unknownNodes = Sets.newSet();
+        for (MergedNode<Object> scc : new TopoSorter<>(sccGraph).get()) {
+            Set<JClass> types = Sets.newHybridSet();
+            boolean unknown = false;
+            for (MergedNode<Object> pred : sccGraph.getPredsOf(scc)) {
+                types.addAll(sccTypes.get(pred));
+                unknown |= unknownSCCs.contains(pred);
+            }
+            for (Object node : scc.getNodes()) {
+                types.addAll(seeds.getOrDefault(node, Set.of()));
+                unknown |= unknownSeeds.contains(node);
+            }
+            sccTypes.put(scc, types);
+            if (unknown) {
+                unknownSCCs.add(scc);
+            }
+            for (Object node : scc.getNodes()) {
+                reachingTypes.put(node, types);
+                if (unknown) {
+                    unknownNodes.add(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the final call graph from the entry method, so that methods
+     * which are only reachable via pruned edges are excluded.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraph() {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                for (Invoke callSite : callGraph.callSitesIn(method).toList()) {
+                    for (JMethod callee : resolveCallees(callSite)) {
+                        callGraph.addEdge(new Edge<>(
+                                CallGraphs.getCallKind(callSite), callSite, callee));
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    private Collection<JMethod> resolveCallees(Invoke callSite) {
+        Set<JMethod> baseCallees = baseGraph.getCalleesOf(callSite);
+        if (!(callSite.isVirtual() || callSite.isInterface())) {
+            return baseCallees;
+        }
+        Var base = ((InvokeInstanceExp) callSite.getInvokeExp()).getBase();
+        Set<JClass> types = reachingTypes.getOrDefault(base, Set.of());
+        if (types.isEmpty() || unknownNodes.contains(base)) {
+            return baseCallees;
+        }
+        MethodRef methodRef = callSite.getMethodRef();
+        Set<JMethod> callees = Sets.newHybridSet();
+        for (JClass type : types) {
+            if (hierarchy.isSubclass(methodRef.getDeclaringClass(), type)) {
+                JMethod callee = resolver.dispatch(type, methodRef.getSubsignature());
+                if (callee != null) {
+                    callees.add(callee);
+                }
+            }
+        }
+        return callees;
+    }
+}
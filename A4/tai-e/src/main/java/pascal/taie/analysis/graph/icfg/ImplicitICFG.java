@@ -0,0 +1,300 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ICFG whose edges are computed on demand from the CFGs and the call graph,
+ * instead of being materialized for all reachable methods up front as in
+ * {@link DefaultICFG}. A method is visited, i.e., its CFG is fetched and
+ * its statements are mapped to it, the first time one of its nodes or
+ * edges is queried. The in/out edges of a node are created on the first
+ * query of them and cached, so only the edges of queried nodes are
+ * materialized.
+ * <p>
+ * This class is safe to be queried by multiple threads.
+ */
+class ImplicitICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(ImplicitICFG.class);
+
+    private final Map<JMethod, CFG<Stmt>> methodToCFG = Maps.newConcurrentMap();
+
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = Maps.newConcurrentMap();
+
+    /**
+     * Return variables and thrown exceptions of each method,
+     * which are attached to the return edges.
+     */
+    private final Map<JMethod, Exits> exits = Maps.newConcurrentMap();
+
+    private final Map<Stmt, Set<ICFGEdge<Stmt>>> inEdges = Maps.newConcurrentMap();
+
+    private final Map<Stmt, Set<ICFGEdge<Stmt>>> outEdges = Maps.newConcurrentMap();
+
+    private volatile Set<Stmt> nodes;
+
+    ImplicitICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    /**
+     * Visits the given method if it has not been visited.
+     *
+     * @return the CFG of the method, or null if the CFG is absent.
+     */
+    private CFG<Stmt> visit(JMethod method) {
+        CFG<Stmt> cfg = methodToCFG.get(method);
+        if (cfg == null) {
+            cfg = ICFGBuilder.getCFGOf(method);
+            if (cfg == null) {
+                logger.warn("CFG of {} is absent, try to fix this" +
+                        " by adding option -scope=reachable", method);
+                return null;
+            }
+            for (Stmt stmt : cfg) {
+                stmtToCFG.put(stmt, cfg);
+            }
+            methodToCFG.put(method, cfg);
+        }
+        return cfg;
+    }
+
+    private CFG<Stmt> getCFGOf(Stmt stmt) {
+        CFG<Stmt> cfg = stmtToCFG.get(stmt);
+        if (cfg == null) {
+            // the statement is not obtained via this ICFG, thus
+            // its container may not be visited yet
+            getNodes();
+            cfg = stmtToCFG.get(stmt);
+        }
+        return cfg;
+    }
+
+    private Exits getExits(JMethod method) {
+        return exits.computeIfAbsent(method, m -> {
+            CFG<Stmt> cfg = visit(m);
+            Set<Var> retVars = Sets.newHybridSet();
+            Set<ClassType> exceptions = Sets.newHybridSet();
+            cfg.getInEdgesOf(cfg.getExit()).forEach(edge -> {
+                if (edge.getKind() == Edge.Kind.RETURN) {
+                    Var retVar = ((Return) edge.getSource()).getValue();
+                    if (retVar != null) {
+                        retVars.add(retVar);
+                    }
+                }
+                if (edge.isExceptional()) {
+                    exceptions.addAll(edge.getExceptions());
+                }
+            });
+            return new Exits(retVars, exceptions);
+        });
+    }
+
+    private ICFGEdge<Stmt> newLocalEdge(Edge<Stmt> edge) {
+        return isCallSite(edge.getSource()) ?
+                new CallToReturnEdge<>(edge) : new NormalEdge<>(edge);
+    }
+
+    private ReturnEdge<Stmt> newReturnEdge(JMethod callee, Stmt callSite, Stmt retSite) {
+        Exits calleeExits = getExits(callee);
+        return new ReturnEdge<>(getExitOf(callee), retSite, callSite,
+                calleeExits.returnVars(), calleeExits.exceptions());
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        Set<ICFGEdge<Stmt>> edges = inEdges.get(stmt);
+        if (edges == null) {
+            edges = computeInEdgesOf(stmt);
+            Set<ICFGEdge<Stmt>> prev = inEdges.putIfAbsent(stmt, edges);
+            if (prev != null) {
+                edges = prev;
+            }
+        }
+        return edges;
+    }
+
+    private Set<ICFGEdge<Stmt>> computeInEdgesOf(Stmt stmt) {
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        if (cfg == null) {
+            return Set.of();
+        }
+        Set<ICFGEdge<Stmt>> edges = Sets.newHybridSet();
+        cfg.getInEdgesOf(stmt).forEach(edge -> edges.add(newLocalEdge(edge)));
+        if (cfg.isEntry(stmt)) {
+            JMethod method = cfg.getMethod();
+            for (Stmt callSite : getCallersOf(method)) {
+                if (visit(callGraph.getContainerOf(callSite)) != null) {
+                    edges.add(new CallEdge<>(callSite, stmt, method));
+                }
+            }
+        }
+        for (Stmt pred : cfg.getPredsOf(stmt)) {
+            if (isCallSite(pred)) {
+                for (JMethod callee : getCalleesOf(pred)) {
+                    if (visit(callee) != null) {
+                        edges.add(newReturnEdge(callee, pred, stmt));
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        Set<ICFGEdge<Stmt>> edges = outEdges.get(stmt);
+        if (edges == null) {
+            edges = computeOutEdgesOf(stmt);
+            Set<ICFGEdge<Stmt>> prev = outEdges.putIfAbsent(stmt, edges);
+            if (prev != null) {
+                edges = prev;
+            }
+        }
+        return edges;
+    }
+
+    private Set<ICFGEdge<Stmt>> computeOutEdgesOf(Stmt stmt) {
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        if (cfg == null) {
+            return Set.of();
+        }
+        Set<ICFGEdge<Stmt>> edges = Sets.newHybridSet();
+        cfg.getOutEdgesOf(stmt).forEach(edge -> edges.add(newLocalEdge(edge)));
+        if (isCallSite(stmt)) {
+            for (JMethod callee : getCalleesOf(stmt)) {
+                CFG<Stmt> calleeCFG = visit(callee);
+                if (calleeCFG != null) {
+                    edges.add(new CallEdge<>(stmt, calleeCFG.getEntry(), callee));
+                }
+            }
+        }
+        if (cfg.isExit(stmt)) {
+            JMethod method = cfg.getMethod();
+            for (Stmt callSite : getCallersOf(method)) {
+                if (visit(callGraph.getContainerOf(callSite)) != null) {
+                    for (Stmt retSite : getReturnSitesOf(callSite)) {
+                        edges.add(newReturnEdge(method, callSite, retSite));
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return visit(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return visit(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return getCFGOf(stmt).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return getCFGOf(stmt) != null;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    /**
+     * Visits all reachable methods on first call. Only the nodes are
+     * collected, and the edges remain implicit.
+     */
+    @Override
+    public Set<Stmt> getNodes() {
+        Set<Stmt> result = nodes;
+        if (result == null) {
+            synchronized (this) {
+                result = nodes;
+                if (result == null) {
+                    Set<Stmt> allNodes = new LinkedHashSet<>();
+                    callGraph.forEach(method -> {
+                        CFG<Stmt> cfg = visit(method);
+                        if (cfg != null) {
+                            cfg.forEach(allNodes::add);
+                        }
+                    });
+                    nodes = result = Collections.unmodifiableSet(allNodes);
+                }
+            }
+        }
+        return result;
+    }
+
+    private record Exits(Set<Var> returnVars, Set<ClassType> exceptions) {
+    }
+}
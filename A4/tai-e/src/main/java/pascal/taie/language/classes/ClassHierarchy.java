@@ -75,6 +75,18 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return true if {@code subclass} is {@code superclass}, or a direct
+     * or indirect subclass, subinterface or implementor of it.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass);
+
+    /**
+     * @return all direct and indirect subclasses, subinterfaces and
+     * implementors of given class, including itself.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -28,8 +28,11 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -65,6 +68,12 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Index of subtype relation, which is built on the first query after
+     * the classes are loaded, and is discarded when a new class is added.
+     */
+    private volatile SubtypeIndex subtypeIndex;
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -97,6 +106,7 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public void addClass(JClass jclass) {
+        subtypeIndex = null;
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -160,6 +170,56 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        if (superclass.equals(subclass)) {
+            return true;
+        }
+        SubtypeIndex index = getSubtypeIndex();
+        if (index.contains(superclass) && index.contains(subclass)) {
+            return index.isSubclass(superclass, subclass);
+        }
+        return getAllSubclassesOf(superclass).contains(subclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        SubtypeIndex index = getSubtypeIndex();
+        if (index.contains(jclass)) {
+            return index.getAllSubclassesOf(jclass);
+        }
+        // the class is not loaded by the class loaders, thus we
+        // traverse the direct subtypes of it
+        Set<JClass> subclasses = newHybridSet();
+        Queue<JClass> workList = new ArrayDeque<>();
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (subclasses.add(c)) {
+                workList.addAll(getDirectSubinterfacesOf(c));
+                workList.addAll(getDirectImplementorsOf(c));
+                workList.addAll(getDirectSubclassesOf(c));
+            }
+        }
+        return subclasses;
+    }
+
+    private SubtypeIndex getSubtypeIndex() {
+        SubtypeIndex index = subtypeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = subtypeIndex;
+                if (index == null) {
+                    List<JClass> classes = allClasses().toList();
+                    index = new SubtypeIndex(classes, this);
+                    subtypeIndex = index;
+                    logger.debug("Built subtype index of {} classes", classes.size());
+                }
+            }
+        }
+        return index;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -0,0 +1,167 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable index of the subtype relation among a set of classes.
+ * <p>
+ * Non-interface classes form a tree via their superclasses, and they are
+ * numbered in pre-order of the tree, so that the subclasses of a class
+ * (including itself) have consecutive ids from its own id to the end of
+ * its subtree. Interfaces are numbered after all classes, and each
+ * interface holds a bit set of the ids of all its subtypes, i.e.,
+ * its subinterfaces and the implementors and their subclasses.
+ */
+class SubtypeIndex {
+
+    private static final String OBJECT = "java.lang.Object";
+
+    private final Map<JClass, Integer> ids;
+
+    private final List<JClass> classes;
+
+    /**
+     * For each non-interface class, one plus the largest id in its subtree.
+     */
+    private final int[] ends;
+
+    /**
+     * Number of non-interface classes.
+     */
+    private final int nClasses;
+
+    /**
+     * Subtypes of each interface, indexed by id minus {@link #nClasses}.
+     */
+    private final BitSet[] interfaceSubtypes;
+
+    SubtypeIndex(Collection<JClass> allClasses, ClassHierarchy hierarchy) {
+        ids = Maps.newMap(allClasses.size());
+        classes = new ArrayList<>(allClasses.size());
+        ends = new int[allClasses.size()];
+        Set<JClass> known = Set.copyOf(allClasses);
+        for (JClass jclass : allClasses) {
+            if (!jclass.isInterface() && !ids.containsKey(jclass)
+                    && (jclass.getSuperClass() == null
+                    || !known.contains(jclass.getSuperClass()))) {
+                numberSubtree(jclass, hierarchy);
+            }
+        }
+        nClasses = classes.size();
+        List<JClass> interfaces = allClasses.stream()
+                .filter(JClass::isInterface)
+                .distinct()
+                .collect(Collectors.toList());
+        interfaces.forEach(this::add);
+        interfaceSubtypes = new BitSet[interfaces.size()];
+        interfaces.forEach(iface -> computeSubtypes(iface, hierarchy));
+    }
+
+    private void numberSubtree(JClass root, ClassHierarchy hierarchy) {
+        int id = add(root);
+        for (JClass subclass : hierarchy.getDirectSubclassesOf(root)) {
+            if (!ids.containsKey(subclass)) {
+                numberSubtree(subclass, hierarchy);
+            }
+        }
+        ends[id] = classes.size();
+    }
+
+    private int add(JClass jclass) {
+        int id = classes.size();
+        ids.put(jclass, id);
+        classes.add(jclass);
+        return id;
+    }
+
+    private BitSet computeSubtypes(JClass iface, ClassHierarchy hierarchy) {
+        int index = ids.get(iface) - nClasses;
+        BitSet subtypes = interfaceSubtypes[index];
+        if (subtypes == null) {
+            subtypes = new BitSet();
+            subtypes.set(ids.get(iface));
+            for (JClass implementor : hierarchy.getDirectImplementorsOf(iface)) {
+                Integer id = ids.get(implementor);
+                if (id != null) {
+                    subtypes.set(id, ends[id]);
+                }
+            }
+            for (JClass subinterface : hierarchy.getDirectSubinterfacesOf(iface)) {
+                if (ids.containsKey(subinterface)) {
+                    subtypes.or(computeSubtypes(subinterface, hierarchy));
+                }
+            }
+            interfaceSubtypes[index] = subtypes;
+        }
+        return subtypes;
+    }
+
+    /**
+     * @return true if the given class is covered by this index.
+     */
+    boolean contains(JClass jclass) {
+        return ids.containsKey(jclass);
+    }
+
+    /**
+     * @return true if {@code subclass} is {@code superclass} or its subtype.
+     * Both classes must be covered by this index.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        int sup = ids.get(superclass);
+        int sub = ids.get(subclass);
+        if (sup >= nClasses) {
+            return interfaceSubtypes[sup - nClasses].get(sub);
+        } else if (sub >= nClasses) {
+            return superclass.getName().equals(OBJECT);
+        } else {
+            return sup <= sub && sub < ends[sup];
+        }
+    }
+
+    /**
+     * @return all subtypes of given class, including itself.
+     * The class must be covered by this index.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        int id = ids.get(jclass);
+        if (id < nClasses) {
+            return Collections.unmodifiableList(classes.subList(id, ends[id]));
+        }
+        BitSet subtypes = interfaceSubtypes[id - nClasses];
+        List<JClass> result = new ArrayList<>(subtypes.cardinality());
+        subtypes.stream().forEach(i -> result.add(classes.get(i)));
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -30,6 +30,18 @@ public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
+    /**
+     * Test cases of linear constant propagation, which is less precise
+     * than {@link InterConstantPropagation}, thus has its own expected results.
+     */
+    private static final String LINEAR_CLASS_PATH = "src/test/resources/dataflow/constprop/linear";
+
+    /**
+     * Test cases of the summary-based solver, which analyzes each method
+     * per entry fact, thus is more precise than the default solver.
+     */
+    private static final String SUMMARY_CLASS_PATH = "src/test/resources/dataflow/constprop/summary";
+
     void test(String inputClass) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
                 "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
@@ -57,4 +69,52 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    @Test
+    public void testImplicitICFG() {
+        for (String inputClass : new String[]{
+                "Example", "Reference", "Fibonacci", "MultiIntArgs"}) {
+            Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                    "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha",
+                    "-a", "icfg=implicit:true");
+        }
+    }
+
+    @Test
+    public void testBoundaryOnly() {
+        for (String inputClass : new String[]{
+                "Example", "Reference", "Fibonacci", "MultiIntArgs"}) {
+            Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                    "edge-refine:false;alias-aware:false;boundary-only:true",
+                    "-a", "cg=algorithm:cha");
+        }
+    }
+
+    @Test
+    public void testSummary() {
+        for (String inputClass : new String[]{
+                "Example", "Reference", "Fibonacci", "MultiIntArgs", "ChainedCalls"}) {
+            Tests.test(inputClass, SUMMARY_CLASS_PATH, InterConstantPropagation.ID,
+                    "edge-refine:false;alias-aware:false;summary:true",
+                    "-a", "cg=algorithm:cha");
+        }
+    }
+
+    @Test
+    public void testSummaryLimit() {
+        // superseded summaries must not count towards the limit
+        Tests.test("LimitedCalls", SUMMARY_CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false;summary:true;summary-limit:2",
+                "-a", "cg=algorithm:cha");
+    }
+
+    @Test
+    public void testIDE() {
+        for (String inputClass : new String[]{
+                "Example", "Reference", "Fibonacci", "MultiIntArgs"}) {
+            Tests.test(inputClass, LINEAR_CLASS_PATH, InterConstantPropagation.ID,
+                    "edge-refine:false;alias-aware:false;ide:true",
+                    "-a", "cg=algorithm:cha");
+        }
+    }
 }
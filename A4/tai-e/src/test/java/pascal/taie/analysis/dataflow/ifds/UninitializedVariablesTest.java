@@ -0,0 +1,128 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+
+public class UninitializedVariablesTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    private static final String IFDS_CLASS_PATH = "src/test/resources/dataflow/ifds";
+
+    private static IFDSResult<Stmt, Var> solve(String classPath, String inputClass) {
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", inputClass,
+                "-a", "cg=algorithm:cha", "-a", "icfg"});
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        return new UninitializedVariables(icfg).solve();
+    }
+
+    void test(String inputClass) {
+        IFDSResult<Stmt, Var> result = solve(CLASS_PATH, inputClass);
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        icfg.forEach(stmt -> {
+            JMethod method = icfg.getContainingMethodOf(stmt);
+            if (!method.getDeclaringClass().getName().equals(inputClass)) {
+                return;
+            }
+            Set<Var> uninitialized = result.getFactsAt(stmt);
+            // javac guarantees definite assignment before each use
+            stmt.getUses().forEach(use -> Assert.assertFalse(
+                    use + " may be uninitialized at " + stmt,
+                    uninitialized.contains(use)));
+            Assert.assertFalse(method.getIR().getParams().stream()
+                    .anyMatch(uninitialized::contains));
+        });
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testReference() {
+        test("Reference");
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        test("MultiIntArgs");
+    }
+
+    @Test
+    public void testUndefined() {
+        IFDSResult<Stmt, Var> result = solve(IFDS_CLASS_PATH, "Uninitialized");
+        IR ir = World.get().getMainMethod().getIR();
+        Var x = getVar(ir, "x");
+        // x is uninitialized before its definition, and initialized after it
+        Stmt defX = ir.getStmts().stream()
+                .filter(s -> s.getDef().filter(x::equals).isPresent())
+                .findFirst()
+                .orElseThrow();
+        Assert.assertTrue(result.getFactsAt(defX).contains(x));
+        Assert.assertFalse(result.getFactsAt(ir.getStmt(defX.getIndex() + 1)).contains(x));
+    }
+
+    @Test
+    public void testOneBranch() {
+        IFDSResult<Stmt, Var> result = solve(IFDS_CLASS_PATH, "Uninitialized");
+        IR ir = World.get().getMainMethod().getIR();
+        Var x = getVar(ir, "x");
+        Var y = getVar(ir, "y");
+        // y is only defined on the true branch, so it may be
+        // uninitialized at the join, i.e., use(x)
+        Stmt join = ir.getStmts().stream()
+                .filter(s -> s instanceof Invoke invoke
+                        && invoke.getInvokeExp().getArgs().contains(x))
+                .findFirst()
+                .orElseThrow();
+        Set<Var> uninitialized = result.getFactsAt(join);
+        Assert.assertTrue(uninitialized.contains(y));
+        Assert.assertFalse(uninitialized.contains(x));
+    }
+
+    private static Var getVar(IR ir, String name) {
+        return ir.getVars().stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
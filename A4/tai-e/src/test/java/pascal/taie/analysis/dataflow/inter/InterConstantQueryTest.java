@@ -0,0 +1,87 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Checks that the answers of demand queries are the same as
+ * the results of exhaustive inter-procedural constant propagation.
+ */
+public class InterConstantQueryTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    void test(String inputClass) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", inputClass,
+                "-a", "cg=algorithm:cha",
+                "-a", InterConstantPropagation.ID + "=edge-refine:false;alias-aware:false"});
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        NodeResult<Stmt, CPFact> result = World.get().getResult(InterConstantPropagation.ID);
+        InterConstantQuery query = new InterConstantQuery(icfg);
+        icfg.forEach(stmt -> {
+            JMethod method = icfg.getContainingMethodOf(stmt);
+            if (!method.getDeclaringClass().getName().equals(inputClass)) {
+                return;
+            }
+            CPFact in = result.getInFact(stmt);
+            for (Var var : method.getIR().getVars()) {
+                if (ConstantPropagation.canHoldInt(var)) {
+                    Assert.assertEquals(var + " at " + stmt,
+                            in.get(var), query.valueAt(stmt, var));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testReference() {
+        test("Reference");
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        test("MultiIntArgs");
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that {@link BottomUpScheduler} summarizes callees before callers,
+ * by computing the transitive callees of each method as its summary.
+ */
+public class BottomUpSchedulerTest {
+
+    private static void test(String main) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/dataflow/constprop/inter",
+                "-m", main, "-a", "cg=algorithm:cha"});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        // callees whose summaries were not available when their callers
+        // were summarized
+        Map<JMethod, Set<JMethod>> unsummarized = Maps.newConcurrentMap();
+        BottomUpScheduler<JMethod, Set<JMethod>> scheduler =
+                new BottomUpScheduler<>(callGraph, 4);
+        Map<JMethod, Set<JMethod>> summaries = scheduler.schedule((method, calleeSummaries) -> {
+            Set<JMethod> reachable = Sets.newHybridSet();
+            reachable.add(method);
+            for (JMethod callee : callGraph.getCalleesOfM(method)) {
+                Set<JMethod> summary = calleeSummaries.apply(callee);
+                if (summary != null) {
+                    reachable.addAll(summary);
+                } else {
+                    unsummarized.computeIfAbsent(method, __ ->
+                            Sets.newConcurrentSet()).add(callee);
+                    reachable.add(callee);
+                }
+            }
+            return reachable;
+        });
+        callGraph.reachableMethods().forEach(method ->
+                Assert.assertEquals(method.toString(),
+                        search(callGraph, method), summaries.get(method)));
+        // only the callees in the same SCC as their callers,
+        // i.e., the ones reaching back to the callers, can be unsummarized
+        unsummarized.forEach((caller, callees) -> callees.forEach(callee ->
+                Assert.assertTrue(caller + " -> " + callee,
+                        summaries.get(callee).contains(caller))));
+    }
+
+    private static Set<JMethod> search(CallGraph<Invoke, JMethod> callGraph, JMethod from) {
+        Set<JMethod> reachable = new HashSet<>();
+        reachable.add(from);
+        Deque<JMethod> stack = new ArrayDeque<>(reachable);
+        while (!stack.isEmpty()) {
+            for (JMethod callee : callGraph.getCalleesOfM(stack.pop())) {
+                if (reachable.add(callee)) {
+                    stack.push(callee);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testFibonacci() {
+        // Fibonacci contains a recursive method
+        test("Fibonacci");
+    }
+}
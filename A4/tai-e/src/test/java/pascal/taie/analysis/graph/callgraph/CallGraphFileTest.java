@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that call graphs loaded from binary files are identical to
+ * the saved ones, and that corrupt files are discarded.
+ */
+public class CallGraphFileTest {
+
+    private static Set<String> buildEdges(String main, String action, File file) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/", "-m", main,
+                "-a", "cg=algorithm:cha;action:" + action + ";file:" + file});
+        return edgesOf(World.get().getResult(CallGraphBuilder.ID));
+    }
+
+    private static Set<String> edgesOf(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph.edges()
+                .map(e -> e.getKind() + " " + CallGraphs.toString(e.getCallSite())
+                        + " -> " + e.getCallee())
+                .collect(Collectors.toSet());
+    }
+
+    private static void test(String main) throws IOException {
+        File file = File.createTempFile(main, ".bin");
+        try {
+            Set<String> saved = buildEdges(main, "save", file);
+            CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+            DefaultCallGraph loaded = CallGraphFile.load(file);
+            Assert.assertNotNull(loaded);
+            // query single methods before the whole graph is loaded
+            callGraph.entryMethods().forEach(entry ->
+                    Assert.assertEquals(callGraph.getCalleesOfM(entry),
+                            loaded.getCalleesOfM(entry)));
+            callGraph.reachableMethods().forEach(method ->
+                    Assert.assertEquals(Set.copyOf(callGraph.getCallersOf(method)),
+                            Set.copyOf(loaded.getCallersOf(method))));
+            Assert.assertEquals(saved, edgesOf(loaded));
+            Assert.assertEquals(saved, buildEdges(main, "load", file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void testCorrupt(String main) throws IOException {
+        File file = File.createTempFile(main, ".bin");
+        try {
+            buildEdges(main, "save", file);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                // the last byte is the kind of the last edge
+                raf.seek(raf.length() - 1);
+                raf.writeByte(Byte.MAX_VALUE);
+            }
+            Assert.assertNull(CallGraphFile.load(file));
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(raf.length() / 2);
+            }
+            Assert.assertNull(CallGraphFile.load(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks that a file whose class path hash differs from the
+     * current program is discarded.
+     */
+    @Test
+    public void testStale() throws IOException {
+        File file = File.createTempFile("VirtualCall", ".bin");
+        try {
+            buildEdges("VirtualCall", "save", file);
+            Assert.assertNotNull(CallGraphFile.load(file));
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                // the hash follows the magic number and the class count
+                raf.seek(2 * Integer.BYTES);
+                int b = raf.read();
+                raf.seek(2 * Integer.BYTES);
+                raf.writeByte(~b);
+            }
+            Assert.assertNull(CallGraphFile.load(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testVirtualCall() throws IOException {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() throws IOException {
+        test("Interface");
+    }
+
+    @Test
+    public void testCorrupt() throws IOException {
+        testCorrupt("VirtualCall");
+    }
+}
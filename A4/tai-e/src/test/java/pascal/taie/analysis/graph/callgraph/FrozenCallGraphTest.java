@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks that frozen call graphs answer the same queries as the
+ * call graphs they are taken from.
+ */
+public class FrozenCallGraphTest {
+
+    private static void test(String main) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", main, "-a", "cg=algorithm:cha"});
+        DefaultCallGraph callGraph = World.get().getResult(CallGraphBuilder.ID);
+        FrozenCallGraph<Invoke, JMethod> frozen = callGraph.freeze();
+        Assert.assertEquals(callGraph.getNumberOfMethods(), frozen.getNumberOfMethods());
+        Assert.assertEquals(callGraph.getNumberOfEdges(), frozen.getNumberOfEdges());
+        for (int m = 0; m < frozen.getNumberOfMethods(); ++m) {
+            JMethod method = frozen.getMethod(m);
+            Assert.assertEquals(m, frozen.getId(method));
+            Set<JMethod> succs = new HashSet<>();
+            for (int i = frozen.getSuccBegin(m); i < frozen.getSuccEnd(m); ++i) {
+                succs.add(frozen.getMethod(frozen.getSucc(i)));
+            }
+            Assert.assertEquals(callGraph.getSuccsOf(method), succs);
+            Set<JMethod> preds = new HashSet<>();
+            for (int i = frozen.getPredBegin(m); i < frozen.getPredEnd(m); ++i) {
+                preds.add(frozen.getMethod(frozen.getPred(i)));
+            }
+            Assert.assertEquals(callGraph.getPredsOf(method), preds);
+            for (int cs = frozen.getCallSiteBegin(m); cs < frozen.getCallSiteEnd(m); ++cs) {
+                Invoke callSite = frozen.getCallSite(cs);
+                Assert.assertEquals(m, frozen.getContainer(cs));
+                Set<JMethod> callees = new HashSet<>();
+                for (int i = frozen.getCalleeBegin(cs); i < frozen.getCalleeEnd(cs); ++i) {
+                    callees.add(frozen.getMethod(frozen.getCallee(i)));
+                    Assert.assertEquals(CallGraphs.getCallKind(callSite),
+                            frozen.getCallKind(i));
+                }
+                Assert.assertEquals(new HashSet<>(callGraph.getCalleesOf(callSite)), callees);
+            }
+        }
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks reachability indexes against searches on the call graphs.
+ */
+public class ReachabilityIndexTest {
+
+    private static void test(String main) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", main, "-a", "cg=algorithm:cha;reachability:true"});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        ReachabilityIndex<JMethod> index = World.get().getResult(ReachabilityIndex.ID);
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        for (JMethod from : methods) {
+            Set<JMethod> reachable = search(callGraph, from);
+            for (JMethod to : methods) {
+                Assert.assertEquals(from + " -> " + to,
+                        reachable.contains(to), index.canReach(from, to));
+            }
+        }
+    }
+
+    private static Set<JMethod> search(CallGraph<Invoke, JMethod> callGraph, JMethod from) {
+        Set<JMethod> reachable = new HashSet<>();
+        reachable.add(from);
+        Deque<JMethod> stack = new ArrayDeque<>(reachable);
+        while (!stack.isEmpty()) {
+            for (JMethod callee : callGraph.getCalleesOfM(stack.pop())) {
+                if (reachable.add(callee)) {
+                    stack.push(callee);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+}
@@ -22,8 +22,15 @@
 
 package pascal.taie.analysis.graph.callgraph.cha;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
 
 public class CHATest {
     
@@ -50,4 +57,34 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testParallel() {
+        // parallel CHA must produce the same call graphs
+        for (String main : new String[]{
+                "StaticCall", "VirtualCall", "Interface", "AbstractMethod"}) {
+            Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha;threads:4");
+        }
+    }
+
+    @Test
+    public void testMegamorphicLimit() {
+        // capped call sites still call all their targets,
+        // so the call graphs must be the same
+        for (String main : new String[]{"VirtualCall", "Interface"}) {
+            CallGraph<Invoke, JMethod> full = buildCallGraph(main, "algorithm:cha");
+            Assert.assertTrue(main + " has no megamorphic call sites",
+                    full.reachableMethods()
+                            .flatMap(full::callSitesIn)
+                            .anyMatch(callSite -> full.getCalleesOf(callSite).size() > 1));
+            Tests.test(main, "src/test/resources/cha/", "cg",
+                    "algorithm:cha;megamorphic-limit:1");
+        }
+    }
+
+    private static CallGraph<Invoke, JMethod> buildCallGraph(String main, String options) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", main, "-a", "cg=" + options});
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph.rta;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that RTA call graphs are subgraphs of CHA call graphs.
+ */
+public class RTATest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static Set<String> buildEdges(String main, String algorithm) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "cg=algorithm:" + algorithm});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        return callGraph.edges()
+                .map(e -> e.getCallSite().getContainer() + "/" +
+                        e.getCallSite().getIndex() + " -> " + e.getCallee())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> test(String main) {
+        Set<String> cha = buildEdges(main, "cha");
+        Set<String> rta = buildEdges(main, "rta");
+        Assert.assertTrue("RTA edges not in CHA: " + rta.stream()
+                        .filter(e -> !cha.contains(e)).toList(),
+                cha.containsAll(rta));
+        return rta;
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        Set<String> rta = test("VirtualCall");
+        // only B is instantiated, thus b.foo() can only reach A.foo()
+        Assert.assertTrue(rta.contains(
+                "<VirtualCall: void main(java.lang.String[])>/3 -> <A: void foo()>"));
+        Assert.assertFalse(rta.stream().anyMatch(e -> e.endsWith("<C: void foo()>")));
+        Assert.assertFalse(rta.stream().anyMatch(e -> e.endsWith("<D: void foo()>")));
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        test("AbstractMethod");
+    }
+}
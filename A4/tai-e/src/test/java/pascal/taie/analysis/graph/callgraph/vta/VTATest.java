@@ -0,0 +1,51 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph.vta;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+
+public class VTATest {
+
+    private static final String CLASS_PATH = "src/test/resources/vta/";
+
+    private static void test(String main) {
+        Tests.test(main, CLASS_PATH, "cg", "algorithm:vta");
+    }
+
+    @Test
+    public void testTypeFlow() {
+        // Circle and Square are both instantiated, so RTA resolves each
+        // draw() call to both of them, while VTA keeps only the type
+        // which flows to the receiver
+        test("TypeFlow");
+    }
+
+    @Test
+    public void testArrayFlow() {
+        // an Item[] is also accessed via Object[], so the Apple stored
+        // via Object[] reaches the Item loaded via Item[], while Plum
+        // never flows to the receiver
+        test("ArrayFlow");
+    }
+}
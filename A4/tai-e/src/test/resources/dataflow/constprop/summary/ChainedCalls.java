@@ -0,0 +1,20 @@
+public class ChainedCalls {
+
+    static int one() {
+        return 1;
+    }
+
+    static int inc(int n) {
+        return id(n) + 1;
+    }
+
+    static int id(int n) {
+        return n;
+    }
+
+    public static void main(String[] args) {
+        //the argument of inc is unknown until one is analyzed
+        int a = one();
+        int b = inc(a);
+    }
+}
@@ -0,0 +1,19 @@
+public class LimitedCalls {
+
+    static int one() {
+        return 1;
+    }
+
+    static int id(int n) {
+        return n;
+    }
+
+    public static void main(String[] args) {
+        //the first summary of id, for unknown a, is superseded
+        //once one is analyzed, thus it must not count towards the limit
+        int a = one();
+        int b = id(a);
+        int c = id(2);
+        int d = id(3);
+    }
+}
@@ -0,0 +1,16 @@
+class Uninitialized {
+
+    static void main(String[] args) {
+        int x, y;
+        int n = args.length;
+        x = n;
+        if (n > 0) {
+            y = x;
+            use(y);
+        }
+        use(x);
+    }
+
+    static void use(int v) {
+    }
+}
@@ -0,0 +1,31 @@
+public class ArrayFlow {
+
+    public static void main(String[] args) {
+        Item[] items = new Item[2];
+        Object[] objects = items;
+        items[0] = new Pear();
+        objects[1] = new Apple();
+        Item item = items[1];
+        item.use();
+        Item plum = new Plum();
+    }
+}
+
+interface Item {
+    void use();
+}
+
+class Apple implements Item {
+    public void use() {
+    }
+}
+
+class Pear implements Item {
+    public void use() {
+    }
+}
+
+class Plum implements Item {
+    public void use() {
+    }
+}
@@ -0,0 +1,35 @@
+public class TypeFlow {
+
+    public static void main(String[] args) {
+        Shape circle = new Circle();
+        Shape square = new Square();
+        Holder holder = new Holder();
+        holder.shape = circle;
+        Shape s = holder.shape;
+        s.draw();
+        Shape t = id(square);
+        t.draw();
+    }
+
+    static Shape id(Shape shape) {
+        return shape;
+    }
+}
+
+interface Shape {
+    void draw();
+}
+
+class Circle implements Shape {
+    public void draw() {
+    }
+}
+
+class Square implements Shape {
+    public void draw() {
+    }
+}
+
+class Holder {
+    Shape shape;
+}
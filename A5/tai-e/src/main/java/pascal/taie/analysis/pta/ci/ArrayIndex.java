@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 
 /**
@@ -37,7 +38,8 @@ class ArrayIndex extends Pointer {
 
     private final Obj array;
 
-    ArrayIndex(Obj array) {
+    ArrayIndex(IndexedHeapModel heapModel, Obj array) {
+        super(heapModel);
         this.array = array;
     }
 
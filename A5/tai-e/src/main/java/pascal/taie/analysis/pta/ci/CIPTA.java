@@ -25,7 +25,7 @@ package pascal.taie.analysis.pta.ci;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
-import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.config.AnalysisConfig;
 
 /**
@@ -41,8 +41,11 @@ public class CIPTA extends ProgramAnalysis {
 
     @Override
     public PointerAnalysisResult analyze() {
-        HeapModel heapModel = new AllocationSiteBasedModel(getOptions());
-        Solver solver = new Solver(heapModel);
+        IndexedHeapModel heapModel = new IndexedHeapModel(
+                new AllocationSiteBasedModel(getOptions()));
+        Solver solver = new Solver(heapModel,
+                getOptions().get("megamorphic-limit") != null ?
+                        getOptions().getInt("megamorphic-limit") : Integer.MAX_VALUE);
         solver.solve();
         CIPTAResult result = solver.getResult();
         new ResultProcessor(getOptions()).process(result);
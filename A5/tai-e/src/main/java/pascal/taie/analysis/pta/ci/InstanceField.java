@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.language.classes.JField;
 import pascal.taie.util.Hashes;
@@ -35,7 +36,8 @@ class InstanceField extends Pointer {
 
     private final JField field;
 
-    InstanceField(Obj base, JField field) {
+    InstanceField(IndexedHeapModel heapModel, Obj base, JField field) {
+        super(heapModel);
         this.base = base;
         this.field = field;
     }
@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
+
 /**
  * Represents pointers in pointer analysis and nodes in pointer flow graph.
  *
@@ -29,7 +31,11 @@ package pascal.taie.analysis.pta.ci;
  */
 abstract class Pointer {
 
-    private final PointsToSet pointsToSet = new PointsToSet();
+    private final PointsToSet pointsToSet;
+
+    Pointer(IndexedHeapModel heapModel) {
+        pointsToSet = new PointsToSet(heapModel);
+    }
 
     PointsToSet getPointsToSet() {
         return pointsToSet;
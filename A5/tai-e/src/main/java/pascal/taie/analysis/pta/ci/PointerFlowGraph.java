@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
@@ -39,6 +40,11 @@ import java.util.Set;
  */
 class PointerFlowGraph {
 
+    /**
+     * Heap model which numbers the objects in points-to sets of pointers.
+     */
+    private final IndexedHeapModel heapModel;
+
     /**
      * Set of all pointer in this PFG.
      */
@@ -69,6 +75,10 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    PointerFlowGraph(IndexedHeapModel heapModel) {
+        this.heapModel = heapModel;
+    }
+
     /**
      * Returns all pointers in this PFG.
      */
@@ -81,7 +91,7 @@ class PointerFlowGraph {
      */
     VarPtr getVarPtr(Var var) {
         return varPtrs.computeIfAbsent(var, v -> {
-            VarPtr varPtr = new VarPtr(v);
+            VarPtr varPtr = new VarPtr(heapModel, v);
             pointers.add(varPtr);
             return varPtr;
         });
@@ -92,7 +102,7 @@ class PointerFlowGraph {
      */
     StaticField getStaticField(JField field) {
         return staticFields.computeIfAbsent(field, f -> {
-            StaticField staticField = new StaticField(f);
+            StaticField staticField = new StaticField(heapModel, f);
             pointers.add(staticField);
             return staticField;
         });
@@ -104,7 +114,7 @@ class PointerFlowGraph {
      */
     InstanceField getInstanceField(Obj base, JField field) {
         return instanceFields.computeIfAbsent(base, field, (b, f) -> {
-                InstanceField instanceField = new InstanceField(b, f);
+                InstanceField instanceField = new InstanceField(heapModel, b, f);
                 pointers.add(instanceField);
                 return instanceField;
             });
@@ -115,7 +125,7 @@ class PointerFlowGraph {
      */
     ArrayIndex getArrayIndex(Obj array) {
         return arrayIndexes.computeIfAbsent(array, a -> {
-            ArrayIndex arrayIndex = new ArrayIndex(a);
+            ArrayIndex arrayIndex = new ArrayIndex(heapModel, a);
             pointers.add(arrayIndex);
             return arrayIndex;
         });
@@ -22,31 +22,64 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
-import pascal.taie.util.collection.Sets;
 
-import java.util.Collections;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents of points-to sets.
+ * <p>
+ * A points-to set is a sparse bit vector over the indexes of objects given
+ * by {@link IndexedHeapModel}: the bits are chunked into 64-bit words, and
+ * only the non-zero words are stored, sorted by their positions. Thus union,
+ * difference and iteration run on whole words.
  */
 class PointsToSet implements Iterable<Obj> {
 
-    private final Set<Obj> set = Sets.newHybridSet();
+    private static final int[] EMPTY_POSITIONS = new int[0];
+
+    private static final long[] EMPTY_WORDS = new long[0];
+
+    private final IndexedHeapModel heapModel;
+
+    /**
+     * Positions of the non-zero words, in ascending order; word {@code i}
+     * holds the bits of indexes {@code 64 * positions[i]} to
+     * {@code 64 * positions[i] + 63}.
+     */
+    private int[] positions = EMPTY_POSITIONS;
+
+    private long[] words = EMPTY_WORDS;
+
+    /**
+     * Number of non-zero words.
+     */
+    private int length = 0;
+
+    /**
+     * Number of objects in this set.
+     */
+    private int size = 0;
 
     /**
      * Constructs an empty points-to set.
      */
-    PointsToSet() {
+    PointsToSet(IndexedHeapModel heapModel) {
+        this.heapModel = heapModel;
     }
 
     /**
      * Constructs a points-to set containing one object.
      */
-    PointsToSet(Obj obj) {
+    PointsToSet(IndexedHeapModel heapModel, Obj obj) {
+        this(heapModel);
         addObject(obj);
     }
 
@@ -57,51 +90,189 @@ class PointsToSet implements Iterable<Obj> {
      * otherwise false.
      */
     boolean addObject(Obj obj) {
-        return set.add(obj);
+        int index = heapModel.index(obj);
+        int i = find(index >>> 6);
+        long bit = 1L << index;
+        if (i < 0) {
+            i = -(i + 1);
+            if (length == words.length) {
+                int capacity = Math.max(4, length * 2);
+                positions = Arrays.copyOf(positions, capacity);
+                words = Arrays.copyOf(words, capacity);
+            }
+            System.arraycopy(positions, i, positions, i + 1, length - i);
+            System.arraycopy(words, i, words, i + 1, length - i);
+            positions[i] = index >>> 6;
+            words[i] = bit;
+            ++length;
+        } else if ((words[i] & bit) != 0) {
+            return false;
+        } else {
+            words[i] |= bit;
+        }
+        ++size;
+        return true;
+    }
+
+    /**
+     * Adds all objects of another set to this set.
+     *
+     * @return a new set of the objects that are in {@code other} but
+     * were not in this set before the call.
+     */
+    PointsToSet addAllDiff(PointsToSet other) {
+        PointsToSet diff = new PointsToSet(heapModel);
+        if (other.length == 0) {
+            return diff;
+        }
+        diff.positions = new int[other.length];
+        diff.words = new long[other.length];
+        int newWords = 0;
+        for (int i = 0, j = 0; j < other.length; ) {
+            if (i < length && positions[i] < other.positions[j]) {
+                ++i;
+            } else {
+                if (i == length || positions[i] > other.positions[j]) {
+                    ++newWords;
+                    diff.append(other.positions[j], other.words[j]);
+                } else {
+                    diff.append(other.positions[j], other.words[j] & ~words[i]);
+                    words[i] |= other.words[j];
+                    ++i;
+                }
+                ++j;
+            }
+        }
+        if (newWords > 0) {
+            // merge the new words into this set
+            int[] mergedPositions = new int[length + newWords];
+            long[] mergedWords = new long[length + newWords];
+            int i = 0, j = 0, k = 0;
+            while (i < length || j < other.length) {
+                if (j == other.length
+                        || (i < length && positions[i] <= other.positions[j])) {
+                    if (j < other.length && positions[i] == other.positions[j]) {
+                        ++j;
+                    }
+                    mergedPositions[k] = positions[i];
+                    mergedWords[k++] = words[i++];
+                } else {
+                    mergedPositions[k] = other.positions[j];
+                    mergedWords[k++] = other.words[j++];
+                }
+            }
+            positions = mergedPositions;
+            words = mergedWords;
+            length = k;
+        }
+        size += diff.size;
+        return diff;
+    }
+
+    /**
+     * Appends a word after the words of this set, if it is not zero.
+     */
+    private void append(int position, long word) {
+        if (word != 0) {
+            positions[length] = position;
+            words[length++] = word;
+            size += Long.bitCount(word);
+        }
+    }
+
+    /**
+     * @return the offset of the word at given position, or
+     * {@code -(insertion point) - 1} if there is no such word.
+     */
+    private int find(int position) {
+        return Arrays.binarySearch(positions, 0, length, position);
     }
 
     /**
      * @return true if this points-to set contains the given object, otherwise false.
      */
     boolean contains(Obj obj) {
-        return set.contains(obj);
+        int index = heapModel.getIndex(obj);
+        if (index < 0) {
+            return false;
+        }
+        int i = find(index >>> 6);
+        return i >= 0 && (words[i] & (1L << index)) != 0;
     }
 
     /**
      * @return whether this set if empty.
      */
     boolean isEmpty() {
-        return set.isEmpty();
+        return size == 0;
     }
 
     /**
      * @return the number of objects in this set.
      */
     int size() {
-        return set.size();
+        return size;
     }
 
     /**
      * @return all objects in this set.
      */
     Stream<Obj> objects() {
-        return set.stream();
+        return StreamSupport.stream(spliterator(), false);
     }
 
     /**
      * @return all objects in this set.
      */
     Set<Obj> getObjects() {
-        return Collections.unmodifiableSet(set);
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Obj obj && PointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<Obj> iterator() {
+                return PointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
     @Override
     public Iterator<Obj> iterator() {
-        return set.iterator();
+        return new Iterator<>() {
+
+            private int i = 0;
+
+            private long word = length > 0 ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && i + 1 < length) {
+                    word = words[++i];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public Obj next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return heapModel.getObject((positions[i] << 6) + bit);
+            }
+        };
     }
 
     @Override
     public String toString() {
-        return set.toString();
+        return getObjects().toString();
     }
 }
@@ -29,7 +29,7 @@ import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
-import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
@@ -39,9 +39,10 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.language.type.Type;
 
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 
@@ -51,7 +52,12 @@ class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
-    private final HeapModel heapModel;
+    /**
+     * Number of call sites that are listed in the statistics of capped call sites.
+     */
+    private static final int TOP_CAPPED = 10;
+
+    private final IndexedHeapModel heapModel;
 
     private DefaultCallGraph callGraph;
 
@@ -63,8 +69,27 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    /**
+     * Maximum number of callees of an instance call site. A call site with
+     * more callees is capped, i.e., it is reported so that the limit can be
+     * tuned. As dropping any target is unsound, and the result would depend
+     * on the order in which the targets are discovered, a capped call site
+     * is still connected to all its targets.
+     */
+    private final int megamorphicLimit;
+
+    /**
+     * Call sites that have more callees than {@link #megamorphicLimit}.
+     */
+    private final Set<Invoke> cappedCallSites = Sets.newHybridOrderedSet();
+
+    Solver(IndexedHeapModel heapModel, int megamorphicLimit) {
         this.heapModel = heapModel;
+        this.megamorphicLimit = megamorphicLimit;
+    }
+
+    Solver(IndexedHeapModel heapModel) {
+        this(heapModel, Integer.MAX_VALUE);
     }
 
     /**
@@ -73,6 +98,9 @@ class Solver {
     void solve() {
         initialize();
         analyze();
+        if (!cappedCallSites.isEmpty()) {
+            logCappedCallSites();
+        }
     }
 
     /**
@@ -80,7 +108,7 @@ class Solver {
      */
     private void initialize() {
         workList = new WorkList();
-        pointerFlowGraph = new PointerFlowGraph();
+        pointerFlowGraph = new PointerFlowGraph(heapModel);
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
@@ -114,7 +142,7 @@ class Solver {
         public Void visit(New stmt) {
             Obj o = heapModel.getObj(stmt);
             Var v = stmt.getLValue();
-            workList.addEntry(pointerFlowGraph.getVarPtr(v), new PointsToSet(o));
+            workList.addEntry(pointerFlowGraph.getVarPtr(v), new PointsToSet(heapModel, o));
             return null;
         }
 
@@ -219,17 +247,8 @@ class Solver {
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO
-        Set<Obj> deltaO = new HashSet<>(pointsToSet.getObjects());
-        Set<Obj> orignO = pointer.getPointsToSet().getObjects();
-        deltaO.removeAll(orignO);
-        PointsToSet delta = new PointsToSet();
-        if (!deltaO.isEmpty()) {
-            for (Obj o : deltaO) {
-                delta.addObject(o);
-            }
-            for (Obj o : deltaO) {
-                pointer.getPointsToSet().addObject(o);
-            }
+        PointsToSet delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+        if (!delta.isEmpty()) {
             for (Pointer successor : pointerFlowGraph.getSuccsOf(pointer)) {
                 workList.addEntry(successor, delta);
             }
@@ -248,15 +267,34 @@ class Solver {
         for (Invoke invoke : var.getInvokes()) {
             JMethod method = resolveCallee(recv, invoke);
             Var mthis = method.getIR().getThis();
-            workList.addEntry(pointerFlowGraph.getVarPtr(mthis), new PointsToSet(recv));
+            workList.addEntry(pointerFlowGraph.getVarPtr(mthis), new PointsToSet(heapModel, recv));
             Edge<Invoke, JMethod> edge = new Edge<>(getCallKind(invoke), invoke, method);
             if (callGraph.addEdge(edge)) {
                 addReachable(method);
                 invokeMethod(invoke, method);
+                if (callGraph.getCalleesOf(invoke).size() > megamorphicLimit) {
+                    cappedCallSites.add(invoke);
+                }
             }
         }
     }
 
+    private void logCappedCallSites() {
+        int targets = cappedCallSites.stream()
+                .mapToInt(callSite -> callGraph.getCalleesOf(callSite).size())
+                .sum();
+        logger.info("Capped {} megamorphic call sites (limit: {}), {} targets in total",
+                cappedCallSites.size(), megamorphicLimit, targets);
+        cappedCallSites.stream()
+                .sorted(Comparator.comparingInt(
+                        (Invoke callSite) -> callGraph.getCalleesOf(callSite).size())
+                        .reversed())
+                .limit(TOP_CAPPED)
+                .forEach(callSite -> logger.info("{} targets: {} in {}",
+                        callGraph.getCalleesOf(callSite).size(), callSite,
+                        callSite.getContainer()));
+    }
+
     /**
      * Resolves the callee of a call site with the receiver object.
      *
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.language.classes.JField;
 
 /**
@@ -31,7 +32,8 @@ class StaticField extends Pointer {
 
     private final JField field;
 
-    StaticField(JField field) {
+    StaticField(IndexedHeapModel heapModel, JField field) {
+        super(heapModel);
         this.field = field;
     }
 
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
 import pascal.taie.ir.exp.Var;
 
 /**
@@ -31,7 +32,8 @@ class VarPtr extends Pointer {
 
     private final Var var;
 
-    VarPtr(Var var) {
+    VarPtr(IndexedHeapModel heapModel, Var var) {
+        super(heapModel);
         this.var = var;
     }
 
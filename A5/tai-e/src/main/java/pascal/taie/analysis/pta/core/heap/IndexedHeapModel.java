@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heap model that numbers the objects of another heap model densely,
+ * in the order they are created, so that sets of objects can be
+ * represented by bit vectors over the numbers.
+ */
+public class IndexedHeapModel implements HeapModel {
+
+    private final HeapModel heapModel;
+
+    private final Map<Obj, Integer> indexes = Maps.newMap();
+
+    private final List<Obj> objects = new ArrayList<>();
+
+    public IndexedHeapModel(HeapModel heapModel) {
+        this.heapModel = heapModel;
+    }
+
+    @Override
+    public Obj getObj(New allocSite) {
+        Obj obj = heapModel.getObj(allocSite);
+        index(obj);
+        return obj;
+    }
+
+    @Override
+    public Obj getConstantObj(ReferenceLiteral value) {
+        Obj obj = heapModel.getConstantObj(value);
+        index(obj);
+        return obj;
+    }
+
+    /**
+     * @return the index of given object. If the object has not been
+     * numbered, e.g., it is not given by this heap model, then it is
+     * numbered by this call.
+     */
+    public int index(Obj obj) {
+        Integer index = indexes.get(obj);
+        if (index == null) {
+            index = objects.size();
+            indexes.put(obj, index);
+            objects.add(obj);
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of given object, or -1 if it has not been numbered.
+     */
+    public int getIndex(Obj obj) {
+        return indexes.getOrDefault(obj, -1);
+    }
+
+    /**
+     * @return the object of given index.
+     */
+    public Obj getObject(int index) {
+        return objects.get(index);
+    }
+
+    /**
+     * @return the number of objects numbered by this heap model.
+     */
+    public int getNumberOfObjects() {
+        return objects.size();
+    }
+}
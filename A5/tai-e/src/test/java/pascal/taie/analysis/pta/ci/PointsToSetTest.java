@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.heap.IndexedHeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks {@link PointsToSet} against {@link HashSet} on random operations.
+ */
+public class PointsToSetTest {
+
+    private static final int OBJECTS = 2000;
+
+    private static final int ROUNDS = 3000;
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(7);
+        Obj[] objs = new Obj[OBJECTS];
+        for (int i = 0; i < objs.length; ++i) {
+            objs[i] = new MockObj(i);
+        }
+        IndexedHeapModel heapModel = new IndexedHeapModel(null);
+        for (int round = 0; round < ROUNDS; ++round) {
+            // small ranges give dense sets, and large ranges sparse ones
+            int range = random.nextBoolean() ? 100 : OBJECTS;
+            PointsToSet x = new PointsToSet(heapModel);
+            PointsToSet y = new PointsToSet(heapModel);
+            Set<Obj> expectedX = new HashSet<>();
+            Set<Obj> expectedY = new HashSet<>();
+            for (int i = random.nextInt(60); i > 0; --i) {
+                Obj obj = objs[random.nextInt(range)];
+                Assert.assertEquals(expectedX.add(obj), x.addObject(obj));
+            }
+            for (int i = random.nextInt(60); i > 0; --i) {
+                Obj obj = objs[random.nextInt(range)];
+                Assert.assertEquals(expectedY.add(obj), y.addObject(obj));
+            }
+            PointsToSet diff = x.addAllDiff(y);
+            Set<Obj> expectedDiff = new HashSet<>(expectedY);
+            expectedDiff.removeAll(expectedX);
+            expectedX.addAll(expectedY);
+            check(expectedX, x);
+            check(expectedY, y);
+            check(expectedDiff, diff);
+            Assert.assertTrue(x.addAllDiff(x).isEmpty());
+            for (Obj obj : objs) {
+                Assert.assertEquals(expectedX.contains(obj), x.contains(obj));
+            }
+        }
+    }
+
+    private static void check(Set<Obj> expected, PointsToSet pts) {
+        List<Obj> iterated = new ArrayList<>();
+        pts.forEach(iterated::add);
+        Assert.assertEquals(expected.size(), iterated.size());
+        Assert.assertEquals(expected, new HashSet<>(iterated));
+        Assert.assertEquals(expected.size(), pts.size());
+        Assert.assertEquals(expected.isEmpty(), pts.isEmpty());
+        Assert.assertEquals(expected, pts.getObjects());
+        Assert.assertEquals(expected.size(), pts.objects().count());
+    }
+
+    private record MockObj(int id) implements Obj {
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return id;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return null;
+        }
+    }
+}
@@ -49,6 +49,7 @@ import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.LoadArray;
@@ -57,16 +58,28 @@ import pascal.taie.ir.stmt.New;
 import pascal.taie.ir.stmt.StmtVisitor;
 import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Number of call sites that are listed in the statistics of capped call sites.
+     */
+    private static final int TOP_CAPPED = 10;
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -83,16 +96,47 @@ class Solver {
 
     private PointerAnalysisResult result;
 
+    /**
+     * Maximum number of callees of an instance call site for which contexts
+     * are selected, specified by option {@code megamorphic-limit}. Beyond
+     * the limit, the call site is capped, i.e., it still calls all targets,
+     * but the targets are analyzed with the empty context.
+     */
+    private final int megamorphicLimit;
+
+    /**
+     * Callees of each instance call site, regardless of contexts.
+     */
+    private final Map<Invoke, Set<JMethod>> callSiteTargets = Maps.newMap();
+
+    /**
+     * Distinct dispatches of each call site which is not capped yet, which
+     * are replayed with the empty context once the call site is capped.
+     * Only the call sites that may be capped are recorded.
+     */
+    private final Map<Invoke, Set<Dispatch>> uncappedDispatches = Maps.newMap();
+
+    /**
+     * Number of CHA targets of each method reference, which bounds
+     * the number of callees of the call sites of the reference.
+     */
+    private final Map<MethodRef, Integer> chaTargets = Maps.newMap();
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        megamorphicLimit = options.get("megamorphic-limit") != null ?
+                options.getInt("megamorphic-limit") : Integer.MAX_VALUE;
     }
 
     void solve() {
         initialize();
         analyze();
+        if (megamorphicLimit != Integer.MAX_VALUE) {
+            logCappedCallSites();
+        }
     }
 
     private void initialize() {
@@ -284,14 +328,89 @@ class Solver {
             Context callSiteC = recv.getContext();
             CSCallSite csCallSite = csManager.getCSCallSite(callSiteC, callSite);
             JMethod callee = resolveCallee(recvObj, callSite);
-            Context calleeC = contextSelector.selectContext(csCallSite, recvObj, callee);
-            CSMethod csCallee = csManager.getCSMethod(calleeC, callee);
-            CSVar pointer = csManager.getCSVar(calleeC, callee.getIR().getThis());
-            workList.addEntry(pointer, PointsToSetFactory.make(recvObj));
-            invokeMethod(csCallSite, csCallee);
+            Context calleeC = isCapped(csCallSite, recvObj, callee) ?
+                    contextSelector.getEmptyContext() :
+                    contextSelector.selectContext(csCallSite, recvObj, callee);
+            dispatch(csCallSite, recvObj, callee, calleeC);
         });
     }
 
+    private void dispatch(CSCallSite csCallSite, CSObj recvObj,
+                          JMethod callee, Context calleeC) {
+        CSMethod csCallee = csManager.getCSMethod(calleeC, callee);
+        CSVar pointer = csManager.getCSVar(calleeC, callee.getIR().getThis());
+        workList.addEntry(pointer, PointsToSetFactory.make(recvObj));
+        invokeMethod(csCallSite, csCallee);
+    }
+
+    /**
+     * Records the callee of a dispatch at given call site, and checks if the
+     * call site is capped, i.e., it has more than {@link #megamorphicLimit}
+     * targets. When the call site gets capped, the dispatches recorded before
+     * are replayed with the empty context, so that every target of a capped
+     * call site is analyzed with the empty context, no matter in which order
+     * the targets are discovered.
+     */
+    private boolean isCapped(CSCallSite csCallSite, CSObj recvObj,
+                             JMethod callee) {
+        Invoke callSite = csCallSite.getCallSite();
+        Set<JMethod> targets = callSiteTargets.computeIfAbsent(
+                callSite, __ -> Sets.newHybridSet());
+        boolean wasCapped = targets.size() > megamorphicLimit;
+        targets.add(callee);
+        if (wasCapped) {
+            return true;
+        }
+        if (targets.size() <= megamorphicLimit) {
+            if (megamorphicLimit != Integer.MAX_VALUE && mayBeCapped(callSite)) {
+                uncappedDispatches.computeIfAbsent(callSite, __ -> Sets.newHybridSet())
+                        .add(new Dispatch(csCallSite, recvObj, callee));
+            }
+            return false;
+        }
+        Set<Dispatch> dispatches = uncappedDispatches.remove(callSite);
+        if (dispatches != null) {
+            Context emptyContext = contextSelector.getEmptyContext();
+            dispatches.forEach(d -> dispatch(
+                    d.csCallSite(), d.recvObj(), d.callee(), emptyContext));
+        }
+        return true;
+    }
+
+    /**
+     * @return true if given call site has more CHA targets than
+     * {@link #megamorphicLimit}, otherwise it can never be capped.
+     */
+    private boolean mayBeCapped(Invoke callSite) {
+        int nTargets = chaTargets.computeIfAbsent(callSite.getMethodRef(), ref -> {
+            ClassHierarchy hierarchy = World.get().getClassHierarchy();
+            return (int) hierarchy.getAllSubclassesOf(ref.getDeclaringClass(), true)
+                    .stream()
+                    .map(c -> hierarchy.dispatch(c, ref))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .count();
+        });
+        return nTargets > megamorphicLimit;
+    }
+
+    private void logCappedCallSites() {
+        List<Map.Entry<Invoke, Set<JMethod>>> capped = callSiteTargets.entrySet()
+                .stream()
+                .filter(e -> e.getValue().size() > megamorphicLimit)
+                .sorted(Comparator.comparingInt(
+                        (Map.Entry<Invoke, Set<JMethod>> e) -> e.getValue().size())
+                        .reversed())
+                .toList();
+        logger.info("Capped {} megamorphic call sites (limit: {}), " +
+                        "their callees are analyzed context-insensitively",
+                capped.size(), megamorphicLimit);
+        capped.stream()
+                .limit(TOP_CAPPED)
+                .forEach(e -> logger.info("{} targets: {} in {}",
+                        e.getValue().size(), e.getKey(), e.getKey().getContainer()));
+    }
+
     private void invokeMethod(CSCallSite csCallsite, CSMethod csCallee) {
         // NEW TODO
         Invoke callSite = csCallsite.getCallSite();
@@ -353,4 +472,7 @@ class Solver {
         }
         return result;
     }
+
+    private record Dispatch(CSCallSite csCallSite, CSObj recvObj, JMethod callee) {
+    }
 }
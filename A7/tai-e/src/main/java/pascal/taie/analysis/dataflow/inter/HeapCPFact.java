@@ -0,0 +1,254 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Constant propagation fact which, besides the values of variables,
+ * carries the values of abstract heap cells, so that a load is a lookup
+ * of the cells it may read instead of a meet over all aliased stores.
+ * <p>
+ * The cells are instance fields of abstract objects, static fields, and
+ * array elements of abstract objects keyed by index values. A store to
+ * an array at a non-constant index writes the cell of index NAC, which is
+ * read by all loads of the array. All stores are weak updates, i.e., the
+ * stored value is met with the old value of the cell, as an abstract
+ * object may represent multiple concrete objects.
+ * <p>
+ * The cells are indexed by their abstract objects, thus a load of an array
+ * at a non-constant index only visits the cells of that array.
+ * <p>
+ * Like variables, absent cells are UNDEF. Cells are not printed by
+ * {@link #toString()}, so results are shown as plain {@link CPFact}s.
+ */
+class HeapCPFact extends CPFact {
+
+    /**
+     * Instance field cells of each abstract object.
+     */
+    private final Map<Obj, Map<JField, Value>> fields = Maps.newMap();
+
+    private final Map<JField, Value> staticFields = Maps.newMap();
+
+    /**
+     * Element cells of each abstract array object, keyed by index values.
+     */
+    private final Map<Obj, Map<Value, Value>> arrays = Maps.newMap();
+
+    HeapCPFact() {
+    }
+
+    /**
+     * Creates a fact with the variable values of given fact and no cells.
+     */
+    HeapCPFact(CPFact fact) {
+        this();
+        copyFrom(fact);
+    }
+
+    Value getField(Obj base, JField field) {
+        return getCell(fields.get(base), field);
+    }
+
+    Value getStaticField(JField field) {
+        return getCell(staticFields, field);
+    }
+
+    Value getArray(Obj array, Value index) {
+        Map<Value, Value> elements = arrays.get(array);
+        if (elements == null || index.isUndef()) {
+            return Value.getUndef();
+        } else if (index.isConstant()) {
+            return meet(getCell(elements, index),
+                    getCell(elements, Value.getNAC()));
+        } else { // NAC index reads all elements of the array
+            return elements.values()
+                    .stream()
+                    .reduce(Value.getUndef(), HeapCPFact::meet);
+        }
+    }
+
+    boolean storeField(Obj base, JField field, Value value) {
+        return !value.isUndef() && storeCell(
+                fields.computeIfAbsent(base, __ -> Maps.newHybridMap()), field, value);
+    }
+
+    boolean storeStaticField(JField field, Value value) {
+        return storeCell(staticFields, field, value);
+    }
+
+    boolean storeArray(Obj array, Value index, Value value) {
+        return !index.isUndef() && !value.isUndef() && storeCell(
+                arrays.computeIfAbsent(array, __ -> Maps.newHybridMap()), index, value);
+    }
+
+    /**
+     * Meets the cells of this fact into the cells of given fact.
+     *
+     * @return true if the target changed as a result of the call.
+     */
+    boolean meetCellsInto(HeapCPFact target) {
+        boolean changed = false;
+        for (Map.Entry<Obj, Map<JField, Value>> entry : fields.entrySet()) {
+            changed |= meetCellsInto(entry.getValue(), target.fields
+                    .computeIfAbsent(entry.getKey(), __ -> Maps.newHybridMap()));
+        }
+        changed |= meetCellsInto(staticFields, target.staticFields);
+        for (Map.Entry<Obj, Map<Value, Value>> entry : arrays.entrySet()) {
+            changed |= meetCellsInto(entry.getValue(), target.arrays
+                    .computeIfAbsent(entry.getKey(), __ -> Maps.newHybridMap()));
+        }
+        return changed;
+    }
+
+    private static <K> boolean meetCellsInto(Map<K, Value> cells, Map<K, Value> target) {
+        boolean changed = false;
+        for (Map.Entry<K, Value> entry : cells.entrySet()) {
+            changed |= storeCell(target, entry.getKey(), entry.getValue());
+        }
+        return changed;
+    }
+
+    /**
+     * Removes the cells whose heap locations satisfy the given predicate,
+     * e.g., the ones that may be modified by the callees at a call-to-return
+     * edge. The heap location of an instance field cell is a {@link Pair}
+     * of {@link Obj} and {@link JField}, the one of a static field cell is
+     * the {@link JField}, and the one of an array element cell is the array
+     * {@link Obj}.
+     *
+     * @return true if this fact changed as a result of the call.
+     */
+    boolean removeCellsIf(Predicate<Object> locationFilter) {
+        boolean changed = false;
+        for (Map.Entry<Obj, Map<JField, Value>> entry : fields.entrySet()) {
+            Obj base = entry.getKey();
+            changed |= entry.getValue().keySet().removeIf(
+                    field -> locationFilter.test(new Pair<>(base, field)));
+        }
+        fields.values().removeIf(Map::isEmpty);
+        changed |= staticFields.keySet().removeIf(locationFilter);
+        changed |= arrays.keySet().removeIf(locationFilter);
+        return changed;
+    }
+
+    private static <K> Value getCell(Map<K, Value> cells, K key) {
+        Value value = cells != null ? cells.get(key) : null;
+        return value != null ? value : Value.getUndef();
+    }
+
+    private static <K> boolean storeCell(Map<K, Value> cells, K key, Value value) {
+        Value oldValue = getCell(cells, key);
+        Value newValue = meet(oldValue, value);
+        if (newValue.isUndef() || newValue.equals(oldValue)) {
+            return false;
+        }
+        cells.put(key, newValue);
+        return true;
+    }
+
+    private static Value meet(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef()) {
+            return v1;
+        } else if (v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        boolean changed = super.copyFrom(fact);
+        if (fact instanceof HeapCPFact heapFact) {
+            changed |= copyObjCellsFrom(heapFact.fields, fields);
+            changed |= copyCellsFrom(heapFact.staticFields, staticFields);
+            changed |= copyObjCellsFrom(heapFact.arrays, arrays);
+        }
+        return changed;
+    }
+
+    private static <K> boolean copyObjCellsFrom(Map<Obj, Map<K, Value>> source,
+                                                Map<Obj, Map<K, Value>> target) {
+        boolean changed = false;
+        for (Map.Entry<Obj, Map<K, Value>> entry : source.entrySet()) {
+            changed |= copyCellsFrom(entry.getValue(), target
+                    .computeIfAbsent(entry.getKey(), __ -> Maps.newHybridMap()));
+        }
+        return changed;
+    }
+
+    private static <K> boolean copyCellsFrom(Map<K, Value> source, Map<K, Value> target) {
+        boolean changed = false;
+        for (Map.Entry<K, Value> entry : source.entrySet()) {
+            changed |= !entry.getValue().equals(
+                    target.put(entry.getKey(), entry.getValue()));
+        }
+        return changed;
+    }
+
+    @Override
+    public HeapCPFact copy() {
+        HeapCPFact copy = new HeapCPFact();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        fields.clear();
+        staticFields.clear();
+        arrays.clear();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        HeapCPFact that = (HeapCPFact) o;
+        return fields.equals(that.fields)
+                && staticFields.equals(that.staticFields)
+                && arrays.equals(that.arrays);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), fields, staticFields, arrays);
+    }
+}
@@ -50,9 +50,17 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * If true, facts carry the values of heap cells, see {@link HeapCPFact}.
+     * This is an alternative to option {@code alias-aware}, specified by
+     * option {@code heap-cells}.
+     */
+    private final boolean heapCells;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        heapCells = getOptions().getBooleanOrDefault("heap-cells", false);
     }
 
     @Override
@@ -70,17 +78,22 @@ public class InterConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(Stmt boundary) {
         IR ir = icfg.getContainingMethodOf(boundary).getIR();
-        return cp.newBoundaryFact(ir.getResult(CFGBuilder.ID));
+        CPFact fact = cp.newBoundaryFact(ir.getResult(CFGBuilder.ID));
+        return heapCells ? new HeapCPFact(fact) : fact;
     }
 
     @Override
     public CPFact newInitialFact() {
-        return cp.newInitialFact();
+        return heapCells ? new HeapCPFact() : cp.newInitialFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         cp.meetInto(fact, target);
+        if (fact instanceof HeapCPFact heapFact
+                && target instanceof HeapCPFact heapTarget) {
+            heapFact.meetCellsInto(heapTarget);
+        }
     }
 
     @Override
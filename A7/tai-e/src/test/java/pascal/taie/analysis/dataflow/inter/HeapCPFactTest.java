@@ -0,0 +1,167 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Pair;
+
+import java.util.Optional;
+import java.util.Set;
+
+public class HeapCPFactTest {
+
+    private static final JClass A = new JClass(null, "A");
+
+    private static final JField F = new JField(A, "f", Set.of(),
+            PrimitiveType.INT, AnnotationHolder.emptyHolder());
+
+    private static final JField G = new JField(A, "g", Set.of(),
+            PrimitiveType.INT, AnnotationHolder.emptyHolder());
+
+    private static final Obj O1 = new MockObj("o1");
+
+    private static final Obj O2 = new MockObj("o2");
+
+    private static final Obj ARRAY = new MockObj("array");
+
+    private static final Value UNDEF = Value.getUndef();
+
+    private static final Value NAC = Value.getNAC();
+
+    private static Value constant(int i) {
+        return Value.makeConstant(i);
+    }
+
+    @Test
+    public void testGetArray() {
+        HeapCPFact fact = new HeapCPFact();
+        Assert.assertTrue(fact.storeArray(ARRAY, constant(0), constant(5)));
+        Assert.assertTrue(fact.storeArray(ARRAY, constant(1), constant(6)));
+        // constant index reads its own cell
+        Assert.assertEquals(constant(5), fact.getArray(ARRAY, constant(0)));
+        Assert.assertEquals(constant(6), fact.getArray(ARRAY, constant(1)));
+        Assert.assertEquals(UNDEF, fact.getArray(ARRAY, constant(2)));
+        // NAC index reads all cells of the array
+        Assert.assertEquals(NAC, fact.getArray(ARRAY, NAC));
+        Assert.assertEquals(UNDEF, fact.getArray(O1, NAC));
+        // UNDEF index reads nothing
+        Assert.assertEquals(UNDEF, fact.getArray(ARRAY, UNDEF));
+        Assert.assertFalse(fact.storeArray(ARRAY, UNDEF, constant(7)));
+        // stores at NAC index are read by all constant indexes
+        Assert.assertTrue(fact.storeArray(ARRAY, NAC, constant(5)));
+        Assert.assertEquals(constant(5), fact.getArray(ARRAY, constant(0)));
+        Assert.assertEquals(NAC, fact.getArray(ARRAY, constant(1)));
+        Assert.assertEquals(constant(5), fact.getArray(ARRAY, constant(2)));
+    }
+
+    @Test
+    public void testWeakUpdate() {
+        HeapCPFact fact = new HeapCPFact();
+        Assert.assertTrue(fact.storeField(O1, F, constant(1)));
+        Assert.assertFalse(fact.storeField(O1, F, constant(1)));
+        Assert.assertEquals(constant(1), fact.getField(O1, F));
+        // the old value is met with the new one
+        Assert.assertTrue(fact.storeField(O1, F, constant(2)));
+        Assert.assertEquals(NAC, fact.getField(O1, F));
+        Assert.assertFalse(fact.storeField(O1, F, constant(1)));
+        Assert.assertEquals(NAC, fact.getField(O1, F));
+        // storing UNDEF changes nothing
+        Assert.assertFalse(fact.storeField(O2, F, UNDEF));
+        Assert.assertFalse(fact.storeStaticField(G, UNDEF));
+        Assert.assertEquals(UNDEF, fact.getField(O2, F));
+        Assert.assertEquals(UNDEF, fact.getStaticField(G));
+        Assert.assertTrue(fact.storeStaticField(G, constant(3)));
+        Assert.assertEquals(constant(3), fact.getStaticField(G));
+        Assert.assertEquals(UNDEF, fact.getField(O1, G));
+    }
+
+    @Test
+    public void testMeetCellsInto() {
+        HeapCPFact source = new HeapCPFact();
+        source.storeField(O1, F, constant(1));
+        source.storeStaticField(G, constant(3));
+        HeapCPFact target = new HeapCPFact();
+        target.storeField(O1, F, constant(2));
+        target.storeField(O2, F, constant(4));
+        Assert.assertTrue(source.meetCellsInto(target));
+        Assert.assertEquals(NAC, target.getField(O1, F));
+        Assert.assertEquals(constant(4), target.getField(O2, F));
+        Assert.assertEquals(constant(3), target.getStaticField(G));
+        Assert.assertFalse(source.meetCellsInto(target));
+        // the source is unchanged
+        Assert.assertEquals(constant(1), source.getField(O1, F));
+        Assert.assertEquals(UNDEF, source.getField(O2, F));
+    }
+
+    @Test
+    public void testRemoveCellsIf() {
+        HeapCPFact fact = new HeapCPFact();
+        fact.storeField(O1, F, constant(1));
+        fact.storeField(O2, F, constant(2));
+        fact.storeStaticField(G, constant(3));
+        fact.storeArray(ARRAY, constant(0), constant(4));
+        fact.storeArray(ARRAY, NAC, constant(4));
+        Assert.assertFalse(fact.removeCellsIf(location -> false));
+        // locations are (object, field) pairs, static fields and arrays
+        Assert.assertTrue(fact.removeCellsIf(new Pair<>(O1, F)::equals));
+        Assert.assertEquals(UNDEF, fact.getField(O1, F));
+        Assert.assertEquals(constant(2), fact.getField(O2, F));
+        Assert.assertTrue(fact.removeCellsIf(G::equals));
+        Assert.assertEquals(UNDEF, fact.getStaticField(G));
+        Assert.assertTrue(fact.removeCellsIf(ARRAY::equals));
+        Assert.assertEquals(UNDEF, fact.getArray(ARRAY, NAC));
+        Assert.assertEquals(constant(2), fact.getField(O2, F));
+    }
+
+    private record MockObj(String name) implements Obj {
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return name;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return null;
+        }
+    }
+}